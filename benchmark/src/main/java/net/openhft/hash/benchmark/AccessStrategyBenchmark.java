@@ -0,0 +1,76 @@
+/*
+ * Copyright 2014 Higher Frequency Trading http://www.higherfrequencytrading.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.openhft.hash.benchmark;
+
+import net.openhft.access.ByteArrayAccess;
+import net.openhft.hash.Hash;
+import net.openhft.hash.HashFunction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * XXH3 of byte arrays with each {@link ByteArrayAccess.Strategy}, selected by the {@code
+ * net.openhft.hash.access} property of the forked JVM. The {@code varHandle} fork needs a Java 9+
+ * runtime; on older ones it measures the plain strategy, like the {@code plain} fork.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class AccessStrategyBenchmark {
+    @Param({"16", "128", "1024", "16384"})
+    public int length;
+
+    private final HashFunction function = Hash.xx3();
+    private byte[] input;
+
+    @Setup
+    public void setup() {
+        input = new byte[length];
+        new Random(1).nextBytes(input);
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = "-Dnet.openhft.hash.access=unsafe")
+    public long unsafe() {
+        return function.hashBytes(input);
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = "-Dnet.openhft.hash.access=varhandle")
+    public long varHandle() {
+        return function.hashBytes(input);
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = "-Dnet.openhft.hash.access=plain")
+    public long plain() {
+        return function.hashBytes(input);
+    }
+}
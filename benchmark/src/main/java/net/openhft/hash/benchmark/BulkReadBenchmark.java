@@ -0,0 +1,91 @@
+/*
+ * Copyright 2014 Higher Frequency Trading http://www.higherfrequencytrading.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.openhft.hash.benchmark;
+
+import net.openhft.hash.Hash;
+import net.openhft.hash.HashState;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Streaming XXH3 of read-only heap buffers, which are read through {@code ByteBufferAccess}
+ * rather than {@code UnsafeAccess}: little-endian buffers by the access itself, big-endian ones
+ * through a reversing access over it. With {@code pollute = true}, the state has hashed buffers
+ * of both orders and {@code StringBuilder}s before, so the reads of the state don't inline the
+ * access of either buffer.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BulkReadBenchmark {
+    @Param({"LITTLE_ENDIAN", "BIG_ENDIAN"})
+    public String order;
+
+    @Param({"false", "true"})
+    public boolean pollute;
+
+    @Param({"1024", "16384"})
+    public int length;
+
+    private final HashState state = Hash.xx3().newState();
+    private ByteBuffer input;
+
+    @Setup
+    public void setup() {
+        final byte[] bytes = new byte[length];
+        new Random(1).nextBytes(bytes);
+        final ByteOrder byteOrder = "BIG_ENDIAN".equals(order) ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN;
+        input = ByteBuffer.wrap(bytes).asReadOnlyBuffer().order(byteOrder);
+        if (pollute) {
+            final StringBuilder ascii = new StringBuilder();
+            for (int i = 0; i < length; i++) {
+                ascii.append((char) ('a' + i % 26));
+            }
+            for (int i = 0; i < 20_000; i++) {
+                state.reset();
+                state.updateBytes(ByteBuffer.wrap(bytes).asReadOnlyBuffer().order(ByteOrder.LITTLE_ENDIAN));
+                state.updateBytes(ByteBuffer.wrap(bytes).asReadOnlyBuffer().order(ByteOrder.BIG_ENDIAN));
+                state.updateUtf8(ascii);
+                state.updateUtf8IgnoreAsciiCase(ascii);
+            }
+        }
+    }
+
+    @Benchmark
+    public long updateBytes() {
+        state.reset();
+        state.updateBytes(input);
+        return state.hash();
+    }
+}
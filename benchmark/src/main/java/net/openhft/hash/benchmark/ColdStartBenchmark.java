@@ -0,0 +1,74 @@
+/*
+ * Copyright 2014 Higher Frequency Trading http://www.higherfrequencytrading.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.openhft.hash.benchmark;
+
+import net.openhft.hash.Hash;
+import net.openhft.hash.HashState;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of the first hash in a fresh JVM, including loading and initialization of the library
+ * classes of the hashed path, i.e. the cold-start counterpart of the "Bootstrap, ns" column of the
+ * README. Each fork measures a single call, so the score is the mean over the forks.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(20)
+public class ColdStartBenchmark {
+    @Param({"8", "1024"})
+    public int length;
+
+    private byte[] input;
+
+    @Setup
+    public void setup() {
+        input = new byte[length];
+        new Random(1).nextBytes(input);
+    }
+
+    @Benchmark
+    public long xx3() {
+        return Hash.xx3().hashBytes(input);
+    }
+
+    @Benchmark
+    public long xx() {
+        return Hash.xx().hashBytes(input);
+    }
+
+    @Benchmark
+    public long xx3State() {
+        final HashState state = Hash.xx3().newState();
+        state.updateBytes(input);
+        return state.hash();
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2014 Higher Frequency Trading http://www.higherfrequencytrading.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.openhft.hash.benchmark;
+
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import net.jpountz.xxhash.XXHash64;
+import net.jpountz.xxhash.XXHashFactory;
+import net.openhft.hash.Hash;
+import org.apache.commons.codec.digest.MurmurHash3;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Zero-allocation Hashing against other JVM hash libraries, over the same {@code byte[]} inputs:
+ * Guava {@code Hashing}, xxHash64 of lz4-java (both its pure Java implementation over {@code
+ * Unsafe} and its JNI one), and MurmurHash3 of commons-codec. Each method returns a 64-bit hash,
+ * or the 32-bit one where the algorithm has no other.
+ *
+ * <p>Run with {@code -prof gc} to report the allocation rate of each library along with the
+ * time, e.g.:
+ * <pre>
+ * java -jar benchmark/target/benchmarks.jar CompetitorBenchmark -prof gc
+ * </pre>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CompetitorBenchmark {
+    @Param({"8", "16", "100", "200", "1024", "65536"})
+    public int length;
+
+    private final net.openhft.hash.HashFunction xx = Hash.xx();
+    private final net.openhft.hash.HashFunction xx3 = Hash.xx3();
+    private final XXHash64 lz4Java = XXHashFactory.fastestJavaInstance().hash64();
+    private final XXHash64 lz4Native = XXHashFactory.nativeInstance().hash64();
+    private final HashFunction guavaMurmur3 = Hashing.murmur3_128();
+    private final HashFunction guavaFarmHash = Hashing.farmHashFingerprint64();
+    private byte[] input;
+
+    @Setup
+    public void setup() {
+        input = new byte[length];
+        new Random(1).nextBytes(input);
+    }
+
+    @Benchmark
+    public long zahXxHash64() {
+        return xx.hashBytes(input);
+    }
+
+    @Benchmark
+    public long zahXxh3() {
+        return xx3.hashBytes(input);
+    }
+
+    @Benchmark
+    public long lz4XxHash64Java() {
+        return lz4Java.hash(input, 0, input.length, 0);
+    }
+
+    @Benchmark
+    public long lz4XxHash64Native() {
+        return lz4Native.hash(input, 0, input.length, 0);
+    }
+
+    @Benchmark
+    public long guavaMurmur3_128() {
+        return guavaMurmur3.hashBytes(input).asLong();
+    }
+
+    @Benchmark
+    public long guavaFarmHash64() {
+        return guavaFarmHash.hashBytes(input).asLong();
+    }
+
+    @Benchmark
+    public long codecMurmur3_128() {
+        return MurmurHash3.hash128x64(input)[0];
+    }
+
+    @Benchmark
+    public int codecMurmur3_32() {
+        return MurmurHash3.hash32x86(input);
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2014 Higher Frequency Trading http://www.higherfrequencytrading.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.openhft.hash.benchmark;
+
+import net.openhft.hash.Hash;
+import net.openhft.hash.HashFunction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The methods hashing inputs which are not one contiguous byte sequence, which must not allocate
+ * per call. Run with the GC profiler and check that {@code gc.alloc.rate.norm} is about 0 B/op:
+ * <pre>
+ * java -jar benchmark/target/benchmarks.jar CompositeInputBenchmark -prof gc
+ * </pre>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CompositeInputBenchmark {
+    static class Quote {
+        long instrumentId = 1234567;
+        String venue = "XLON";
+        double bid = 101.25;
+        double ask = 101.5;
+        int bidSize = 300;
+        int askSize = 500;
+    }
+
+    @Param({"xx", "xx3"})
+    public String function;
+
+    @Param({"16", "200", "1024"})
+    public int length;
+
+    private HashFunction f;
+    private byte[] bytes;
+    private ByteBuffer[] segments;
+    private String ascii;
+    private String utf8;
+    private final Quote quote = new Quote();
+
+    @Setup
+    public void setup() {
+        f = "xx".equals(function) ? Hash.xx() : Hash.xx3();
+        bytes = new byte[length];
+        new Random(1).nextBytes(bytes);
+        final ByteBuffer direct = ByteBuffer.allocateDirect(length / 2);
+        direct.put(bytes, length / 4, length / 2).flip();
+        segments = new ByteBuffer[] {
+                ByteBuffer.wrap(bytes, 0, length / 4), direct,
+                ByteBuffer.wrap(bytes, length / 4 + length / 2, length - length / 4 - length / 2)};
+        final StringBuilder chars = new StringBuilder();
+        for (int i = 0; chars.length() < length; i++) {
+            chars.append((char) ('A' + i % 26));
+        }
+        ascii = chars.toString();
+        for (int i = 0; i < length; i += 16) {
+            chars.setCharAt(i, '\u00e9');
+        }
+        utf8 = chars.toString();
+    }
+
+    @Benchmark
+    public long fields() {
+        return f.hashFields(quote);
+    }
+
+    @Benchmark
+    public long segments() {
+        return f.hashBytes(segments);
+    }
+
+    @Benchmark
+    public long longAndBytes() {
+        return f.hash(length, bytes, 0, length);
+    }
+
+    @Benchmark
+    public long twoLongsAndAscii() {
+        return f.hash(length, 42, ascii);
+    }
+
+    @Benchmark
+    public long utf8() {
+        return f.hashUtf8(utf8);
+    }
+
+    @Benchmark
+    public long utf8IgnoreAsciiCase() {
+        return f.hashUtf8IgnoreAsciiCase(utf8);
+    }
+}
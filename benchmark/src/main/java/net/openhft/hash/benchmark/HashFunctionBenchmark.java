@@ -0,0 +1,120 @@
+/*
+ * Copyright 2014 Higher Frequency Trading http://www.higherfrequencytrading.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.openhft.hash.benchmark;
+
+import net.openhft.hash.Hash;
+import net.openhft.hash.HashFunction;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Every hash function of {@link Hash}, over lengths from each length class of XXH3 (0-16, 17-128,
+ * 129-240 bytes, 1 KiB, 64 KiB and 16 MiB), and over each kind of input: {@code byte[]}, and
+ * heap, direct and read-only heap {@code ByteBuffer}s of either byte order. The read-only buffers
+ * are read by {@code ByteBufferAccess}, and the big-endian ones through a reversing access.
+ *
+ * <p>{@link #latency()} reports the average time of a hash, {@link #throughput()} both hashes
+ * and bytes per second ({@code bytes} row). The whole matrix runs for hours, so narrow it down by
+ * the JMH options, e.g.:
+ * <pre>
+ * java -jar benchmark/target/benchmarks.jar HashFunctionBenchmark -p function=xx3 -p input=BYTE_ARRAY
+ * </pre>
+ */
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HashFunctionBenchmark {
+    @Param({"xx", "xx3", "xx3Tree"})
+    public String function;
+
+    @Param({"8", "16", "100", "200", "1024", "65536", "16777216"})
+    public int length;
+
+    @Param({"BYTE_ARRAY", "HEAP_LE", "HEAP_BE", "DIRECT_LE", "DIRECT_BE", "READ_ONLY_LE", "READ_ONLY_BE"})
+    public String input;
+
+    private HashFunction hashFunction;
+    private byte[] array;
+    private ByteBuffer buffer;
+
+    @Setup
+    public void setup() {
+        hashFunction = "xx".equals(function) ? Hash.xx() : "xx3".equals(function) ? Hash.xx3() : Hash.xx3Tree();
+        final byte[] bytes = new byte[length];
+        new Random(1).nextBytes(bytes);
+        final ByteOrder order = input.endsWith("_BE") ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN;
+        if (input.equals("BYTE_ARRAY")) {
+            array = bytes;
+        } else if (input.startsWith("HEAP")) {
+            buffer = ByteBuffer.wrap(bytes).order(order);
+        } else if (input.startsWith("DIRECT")) {
+            buffer = ByteBuffer.allocateDirect(length).order(order);
+            buffer.put(bytes).clear();
+        } else {
+            buffer = ByteBuffer.wrap(bytes).asReadOnlyBuffer().order(order);
+        }
+    }
+
+    /**
+     * Counts the hashed bytes, reported per second in the throughput mode.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Bytes {
+        public long bytes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            bytes = 0;
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public long latency() {
+        return hash();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public long throughput(final Bytes counter) {
+        counter.bytes += length;
+        return hash();
+    }
+
+    private long hash() {
+        return array != null ? hashFunction.hashBytes(array) : hashFunction.hashBytes(buffer);
+    }
+}
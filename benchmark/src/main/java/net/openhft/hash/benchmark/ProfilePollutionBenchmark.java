@@ -0,0 +1,105 @@
+/*
+ * Copyright 2014 Higher Frequency Trading http://www.higherfrequencytrading.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.openhft.hash.benchmark;
+
+import net.openhft.hash.Hash;
+import net.openhft.hash.HashFunction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hashing of {@code byte[]} after the same hash function has hashed inputs through many other
+ * {@code Access} strategies: read-only and big-endian buffers, case-folded, xored, mapped and
+ * {@code CharSequence} inputs. Such a mix makes the type profiles of the shared reading call
+ * sites megamorphic. With {@code pollute = false} the fork only ever hashes {@code byte[]}s, so
+ * the difference between the two is the cost of the pollution.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProfilePollutionBenchmark {
+    private static final int POLLUTION_ROUNDS = 20_000;
+
+    @Param({"xx", "xx3"})
+    public String function;
+
+    @Param({"false", "true"})
+    public boolean pollute;
+
+    @Param({"8", "64", "200", "1024", "16384"})
+    public int length;
+
+    private HashFunction f;
+    private byte[] input;
+
+    @Setup
+    public void setup(Blackhole bh) {
+        f = "xx".equals(function) ? Hash.xx() : Hash.xx3();
+        input = new byte[length];
+        new Random(1).nextBytes(input);
+        if (pollute) {
+            pollute(f, bh);
+        }
+    }
+
+    private static void pollute(HashFunction f, Blackhole bh) {
+        byte[] table = new byte[256];
+        for (int i = 0; i < table.length; i++) {
+            table[i] = (byte) i;
+        }
+        for (int len : new int[] {7, 15, 100, 200, 2000}) {
+            byte[] bytes = new byte[len];
+            ByteBuffer readOnly = ByteBuffer.wrap(bytes).asReadOnlyBuffer();
+            ByteBuffer bigEndian = ByteBuffer.wrap(bytes).asReadOnlyBuffer().order(ByteOrder.BIG_ENDIAN);
+            StringBuilder chars = new StringBuilder();
+            for (int i = 0; i < len; i++) {
+                chars.append('a');
+            }
+            for (int i = 0; i < POLLUTION_ROUNDS; i++) {
+                bh.consume(f.hashBytes(readOnly));
+                bh.consume(f.hashBytes(bigEndian));
+                bh.consume(f.hashBytesXor(bytes, 0, len, i));
+                bh.consume(f.hashBytesMapped(bytes, 0, len, table));
+                bh.consume(f.hashUtf8IgnoreAsciiCase(chars));
+                bh.consume(f.hashUtf8(chars));
+            }
+        }
+    }
+
+    @Benchmark
+    public long hashBytes() {
+        return f.hashBytes(input);
+    }
+}
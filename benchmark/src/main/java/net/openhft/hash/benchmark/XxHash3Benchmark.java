@@ -0,0 +1,65 @@
+/*
+ * Copyright 2014 Higher Frequency Trading http://www.higherfrequencytrading.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.openhft.hash.benchmark;
+
+import net.openhft.hash.Hash;
+import net.openhft.hash.HashFunction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * XXH3 over {@code byte[]} of every length class of the algorithm: 0, 1-3, 4-8, 9-16, 17-128,
+ * 129-240 bytes, and the long input loop, within and beyond one block of 1 KiB. The short lengths
+ * take a few nanoseconds, so they are measured over 3 forks of 10 iterations: compare changes by
+ * the error bars, not by single runs.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(3)
+public class XxHash3Benchmark {
+    @Param({"0", "3", "8", "16", "64", "128", "200", "240", "1024", "16384"})
+    public int length;
+
+    private final HashFunction xx3 = Hash.xx3();
+    private byte[] input;
+
+    @Setup
+    public void setup() {
+        input = new byte[length];
+        new Random(1).nextBytes(input);
+    }
+
+    @Benchmark
+    public long hashBytes() {
+        return xx3.hashBytes(input);
+    }
+}
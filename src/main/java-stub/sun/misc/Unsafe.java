@@ -1,5 +1,8 @@
 package sun.misc;
 
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+
 /**
  * Stub for JDK internal ckass sun.misc.Unsafe.
  *
@@ -12,7 +15,14 @@ package sun.misc;
 public final class Unsafe {
     public native int     getInt(    Object o, long offset);
     public native byte    getByte(   Object o, long offset);
+    public native short   getShort(  Object o, long offset);
+    public native char    getChar(   Object o, long offset);
+    public native boolean getBoolean(Object o, long offset);
     public native long    getLong(   Object o, long offset);
+    public native Object  getObject( Object o, long offset);
 
     public native int arrayBaseOffset(Class arrayClass);
+    public native long objectFieldOffset(Field f);
+
+    public native void invokeCleaner(ByteBuffer directBuffer);
 }
@@ -57,12 +57,52 @@ import static net.openhft.internal.Primitives.unsignedInt;
  * @see HashFunction#hash(Object, Access, long, long)
  */
 public abstract class Access<T> {
+    // The factories below create the nested accesses by their own static methods, which return
+    // them typed as Access, so the verifier of this class doesn't load all of them up front.
+
     /**
      * Get the {@code Access} object with a different byte order. This method should
      * always return a fixed reference.
      */
     public static <T> Access<T> reverse(Access<T> access) {
-        return new ReverseAccess<>(access);
+        return ReverseAccess.of(access);
+    }
+
+    /**
+     * Get the {@code Access} object reading the same byte sequence as the given one, but with
+     * ASCII upper case letters ({@code 'A'..'Z'}) replaced by the corresponding lower case ones.
+     * All other bytes, including non-ASCII ones, are left as is. Multi-byte reads fold case in
+     * all bytes at once.
+     */
+    public static <T> Access<T> lowerCaseAscii(Access<T> access) {
+        return LowerCaseAsciiAccess.of(access);
+    }
+
+    /**
+     * Get the {@code Access} object reading the bytes of the given one xored with the bytes of
+     * the given 64-bit mask, repeated over the byte sequence: the byte at offset {@code off} is
+     * xored with the byte {@code (off + phase) & 7} of the mask, counting from the least
+     * significant one. Multi-byte reads xor all bytes at once.
+     *
+     * <p>For example, a 32-bit WebSocket masking key {@code k}, applied starting from offset
+     * {@code off}, is {@code xor(access, (k & 0xFFFFFFFFL) * 0x100000001L, -off)} (with
+     * {@code k} in little-endian order).
+     */
+    public static <T> Access<T> xor(Access<T> access, long mask, long phase) {
+        return XorAccess.of(access, mask, phase);
+    }
+
+    /**
+     * Get the {@code Access} object reading the bytes of the given one translated by the given
+     * table: each byte {@code b} is read as {@code table[b & 0xFF]}. The table is not copied,
+     * so it shouldn't be modified while the returned {@code Access} is in use.
+     *
+     * @throws IllegalArgumentException if the length of the table is not 256
+     */
+    public static <T> Access<T> map(Access<T> access, byte[] table) {
+        if (table.length != 256)
+            throw new IllegalArgumentException("table length should be 256, " + table.length + " given");
+        return MapAccess.of(access, table);
     }
 
     /**
@@ -76,6 +116,9 @@ public abstract class Access<T> {
     public  int i32(final T input, final long offset) { return getInt(input, offset); }
     public  int  u8(final T input, final long offset) { return getUnsignedByte(input, offset); }
     public  int  i8(final T input, final long offset) { return getByte(input, offset); }
+    public void i64s(final T input, final long offset, final long[] dst, final int dstOff, final int count) {
+        getLongs(input, offset, dst, dstOff, count);
+    }
 
     /**
      * Reads {@code [offset, offset + 7]} bytes of the byte sequence represented by the given
@@ -88,6 +131,26 @@ public abstract class Access<T> {
      */
     protected abstract long getLong(T input, long offset);
 
+    /**
+     * Reads {@code count} consecutive {@code long} values, the {@code i}-th of them from {@code
+     * [offset + 8 * i, offset + 8 * i + 7]} bytes, to {@code dst[dstOff + i]}, i.e. the same
+     * values as {@link #getLong(Object, long)} of each. Implementations could read the values
+     * more efficiently in bulk, than by a call per value; hash functions read stripes of their
+     * input this way, when the per-value calls of the access are not inlined.
+     *
+     * @param input the object to access
+     * @param offset offset to the first byte to read within the byte sequence represented
+     * by the given object
+     * @param dst the array to store the values to
+     * @param dstOff index in {@code dst} to store the first value to
+     * @param count number of values to read
+     */
+    protected void getLongs(T input, long offset, long[] dst, int dstOff, int count) {
+        for (int i = 0; i < count; i++, offset += 8) {
+            dst[dstOff + i] = getLong(input, offset);
+        }
+    }
+
     /**
      * Shortcut for {@code getInt(input, offset) & 0xFFFFFFFFL}. Could be implemented more
      * efficiently.
@@ -145,11 +208,24 @@ public abstract class Access<T> {
             this.access = access;
         }
 
+        static <T> Access<T> of(final Access<T> access) {
+            return new ReverseAccess<>(access);
+        }
+
         @Override
         public long getLong(final T input, final long offset) {
             return Long.reverseBytes(access.getLong(input, offset));
         }
 
+        @Override
+        public void getLongs(final T input, final long offset, final long[] dst,
+                             final int dstOff, final int count) {
+            access.getLongs(input, offset, dst, dstOff, count);
+            for (int i = dstOff; i < dstOff + count; i++) {
+                dst[i] = Long.reverseBytes(dst[i]);
+            }
+        }
+
         @Override
         public long getUnsignedInt(final T input, final long offset) {
             return Long.reverseBytes(access.getUnsignedInt(input, offset)) >>> 32;
@@ -165,4 +241,153 @@ public abstract class Access<T> {
             return access.getByte(input, offset);
         }
     }
+
+    /**
+     * ASCII case folding {@code Access}, by the SWAR technique: for each byte {@code b < 0x80},
+     * {@code (b + (0x80 - 'A'))} has the high bit set iff {@code b >= 'A'}, and {@code
+     * (b + (0x80 - 'Z' - 1))} iff {@code b > 'Z'}, and no additions carry to the next byte.
+     */
+    private static class LowerCaseAsciiAccess<T> extends Access<T> {
+        private static final long HIGH_BITS = 0x8080808080808080L;
+        private static final long LOW_BITS = 0x7F7F7F7F7F7F7F7FL;
+        private static final long TO_A = 0x3F3F3F3F3F3F3F3FL;
+        private static final long PAST_Z = 0x2525252525252525L;
+
+        private final Access<T> access;
+
+        private LowerCaseAsciiAccess(final Access<T> access) {
+            this.access = access;
+        }
+
+        static <T> Access<T> of(final Access<T> access) {
+            return new LowerCaseAsciiAccess<>(access);
+        }
+
+        private static long toLowerCase(final long v) {
+            final long heptets = v & LOW_BITS;
+            final long upper = (heptets + TO_A) & ~(heptets + PAST_Z) & ~v & HIGH_BITS;
+            return v | (upper >>> 2);
+        }
+
+        private static int toLowerCase(final int v) {
+            final int heptets = v & (int) LOW_BITS;
+            final int upper = (heptets + (int) TO_A) & ~(heptets + (int) PAST_Z) & ~v & (int) HIGH_BITS;
+            return v | (upper >>> 2);
+        }
+
+        @Override
+        public long getLong(final T input, final long offset) {
+            return toLowerCase(access.getLong(input, offset));
+        }
+
+        @Override
+        public void getLongs(final T input, final long offset, final long[] dst,
+                             final int dstOff, final int count) {
+            access.getLongs(input, offset, dst, dstOff, count);
+            for (int i = dstOff; i < dstOff + count; i++) {
+                dst[i] = toLowerCase(dst[i]);
+            }
+        }
+
+        @Override
+        public int getInt(final T input, final long offset) {
+            return toLowerCase(access.getInt(input, offset));
+        }
+
+        @Override
+        public int getByte(final T input, final long offset) {
+            final int b = access.getByte(input, offset);
+            return b >= 'A' && b <= 'Z' ? b | 0x20 : b;
+        }
+    }
+
+    /**
+     * Xor mask {@code Access}: the mask, rotated to the phase of the offset, is xored with
+     * whole {@code long} and {@code int} reads.
+     */
+    private static class XorAccess<T> extends Access<T> {
+        private final Access<T> access;
+        private final long mask;
+        private final long phase;
+
+        private XorAccess(final Access<T> access, final long mask, final long phase) {
+            this.access = access;
+            this.mask = mask;
+            this.phase = phase;
+        }
+
+        static <T> Access<T> of(final Access<T> access, final long mask, final long phase) {
+            return new XorAccess<>(access, mask, phase);
+        }
+
+        private long mask(final long offset) {
+            return Long.rotateRight(mask, (int) (offset + phase) << 3);
+        }
+
+        @Override
+        public long getLong(final T input, final long offset) {
+            return access.getLong(input, offset) ^ mask(offset);
+        }
+
+        @Override
+        public void getLongs(final T input, final long offset, final long[] dst,
+                             final int dstOff, final int count) {
+            access.getLongs(input, offset, dst, dstOff, count);
+            // all values are 8 bytes apart, so have the same phase
+            final long mask = mask(offset);
+            for (int i = dstOff; i < dstOff + count; i++) {
+                dst[i] ^= mask;
+            }
+        }
+
+        @Override
+        public int getInt(final T input, final long offset) {
+            return access.getInt(input, offset) ^ (int) mask(offset);
+        }
+
+        @Override
+        public int getByte(final T input, final long offset) {
+            return (byte) (access.getByte(input, offset) ^ (int) mask(offset));
+        }
+    }
+
+    /**
+     * Byte translation {@code Access}, multi-byte reads are assembled from translated bytes.
+     */
+    private static class MapAccess<T> extends Access<T> {
+        private final Access<T> access;
+        private final byte[] table;
+
+        private MapAccess(final Access<T> access, final byte[] table) {
+            this.access = access;
+            this.table = table;
+        }
+
+        static <T> Access<T> of(final Access<T> access, final byte[] table) {
+            return new MapAccess<>(access, table);
+        }
+
+        private long map(final long v, final int bytes) {
+            long r = 0;
+            for (int shift = 0; shift < bytes << 3; shift += 8) {
+                r |= (table[(int) (v >>> shift) & 0xFF] & 0xFFL) << shift;
+            }
+            return r;
+        }
+
+        @Override
+        public long getLong(final T input, final long offset) {
+            return map(access.getLong(input, offset), 8);
+        }
+
+        @Override
+        public int getInt(final T input, final long offset) {
+            return (int) map(access.getInt(input, offset), 4);
+        }
+
+        @Override
+        public int getByte(final T input, final long offset) {
+            return table[access.getByte(input, offset) & 0xFF];
+        }
+    }
 }
@@ -0,0 +1,62 @@
+/*
+ * Copyright 2014 Higher Frequency Trading http://www.higherfrequencytrading.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.openhft.access;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Access to a {@code CharSequence} as the sequence of the low bytes of its chars, one byte per
+ * char, offsets are char indexes. For sequences of ASCII chars only, this is exactly their
+ * ASCII, Latin-1 and UTF-8 encoding.
+ */
+public final class AsciiCharSequenceAccess extends Access<CharSequence> {
+    @NotNull
+    private static final Access<CharSequence> INSTANCE = new AsciiCharSequenceAccess();
+
+    public static Access<CharSequence> instance() {
+        return INSTANCE;
+    }
+
+    private AsciiCharSequenceAccess() {}
+
+    @Override
+    public long getLong(CharSequence input, long offset) {
+        final int i = (int) offset;
+        return (input.charAt(i) & 0xFFL)
+            | ((input.charAt(i + 1) & 0xFFL) << 8)
+            | ((input.charAt(i + 2) & 0xFFL) << 16)
+            | ((input.charAt(i + 3) & 0xFFL) << 24)
+            | ((input.charAt(i + 4) & 0xFFL) << 32)
+            | ((input.charAt(i + 5) & 0xFFL) << 40)
+            | ((input.charAt(i + 6) & 0xFFL) << 48)
+            | ((long) input.charAt(i + 7) << 56);
+    }
+
+    @Override
+    public int getInt(CharSequence input, long offset) {
+        final int i = (int) offset;
+        return (input.charAt(i) & 0xFF)
+            | ((input.charAt(i + 1) & 0xFF) << 8)
+            | ((input.charAt(i + 2) & 0xFF) << 16)
+            | (input.charAt(i + 3) << 24);
+    }
+
+    @Override
+    public int getByte(CharSequence input, long offset) {
+        return (byte) input.charAt((int) offset);
+    }
+}
@@ -0,0 +1,178 @@
+/*
+ * Copyright 2014 Higher Frequency Trading http://www.higherfrequencytrading.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.openhft.access;
+
+import net.openhft.internal.Unsafes;
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * The fastest {@code Access} to byte arrays available in the running JVM, which all hash
+ * functions read arrays and heap buffers by. It's selected once, in the order of {@link
+ * Strategy}: {@code Unsafe}, if it's accessible and its reads are not denied, then {@code
+ * VarHandle}s on Java 9+ runtimes, then plain Java code. The {@code net.openhft.hash.access}
+ * system property set to {@code unsafe}, {@code varhandle} or {@code plain}, in any case, limits
+ * the selection to the given strategy and the slower ones; other values are ignored with a
+ * warning, and the fastest available strategy is selected.
+ *
+ * <p>Offsets of the access are {@link #baseOffset()} plus array indexes. Only the {@code Unsafe}
+ * strategy {@linkplain #readsAddresses() reads} off-heap memory by address, with {@code null}
+ * input; with other strategies, direct buffers are read by {@link ByteBufferAccess}.
+ */
+public final class ByteArrayAccess {
+    /**
+     * Strategies of reading byte arrays, from the fastest one.
+     */
+    public enum Strategy {
+        /**
+         * {@link UnsafeAccess}, which reads both arrays and off-heap memory without bounds checks.
+         */
+        UNSAFE,
+        /**
+         * Byte array view {@code VarHandle}s, from the Java 9+ layer of the multi-release JAR.
+         */
+        VAR_HANDLE,
+        /**
+         * Values assembled from single bytes, available on any JVM.
+         */
+        PLAIN
+    }
+
+    @NotNull
+    private static final Strategy STRATEGY;
+    @NotNull
+    private static final Access<byte[]> INSTANCE;
+    @NotNull
+    private static final Access<byte[]> NATIVE_ORDER_INSTANCE;
+    private static final long BASE_OFFSET;
+
+    static {
+        Strategy strategy = Strategy.PLAIN;
+        Access<byte[]> instance = null;
+        Access<byte[]> nativeOrderInstance = null;
+        long baseOffset = 0;
+        if (Unsafes.UNSAFE != null) {
+            strategy = Strategy.UNSAFE;
+            instance = UnsafeAccess.instance();
+            nativeOrderInstance = UnsafeAccess.nativeOrderInstance();
+            baseOffset = UnsafeAccess.baseOffset();
+        } else if (Unsafes.ACCESS == null || "unsafe".equals(Unsafes.ACCESS)
+                || "varhandle".equals(Unsafes.ACCESS)) {
+            try {
+                final Class<?> c = Class.forName("net.openhft.access.VarHandleAccess");
+                final Method nativeOrder = c.getDeclaredMethod("nativeOrderInstance");
+                @SuppressWarnings("unchecked")
+                final Access<byte[]> varHandle = (Access<byte[]>) c.getDeclaredMethod("instance").invoke(null);
+                @SuppressWarnings("unchecked")
+                final Access<byte[]> varHandleNative = (Access<byte[]>) nativeOrder.invoke(null);
+                strategy = Strategy.VAR_HANDLE;
+                instance = varHandle;
+                nativeOrderInstance = varHandleNative;
+            } catch (final Throwable ignore) {
+                // not a Java 9+ runtime, or the JAR is used without its versioned layers
+            }
+        }
+        if (strategy == Strategy.PLAIN) {
+            // not loaded if any faster strategy is available
+            instance = PlainByteArrayAccess.INSTANCE;
+            nativeOrderInstance = ByteOrder.nativeOrder() == ByteOrder.LITTLE_ENDIAN
+                    ? instance : Access.reverse(instance);
+        }
+        STRATEGY = strategy;
+        INSTANCE = instance;
+        NATIVE_ORDER_INSTANCE = nativeOrderInstance;
+        BASE_OFFSET = baseOffset;
+    }
+
+    private ByteArrayAccess() {}
+
+    /**
+     * Returns the strategy of reading byte arrays selected for the running JVM.
+     *
+     * @return the strategy of {@link #instance()}
+     */
+    public static Strategy strategy() {
+        return STRATEGY;
+    }
+
+    /**
+     * Get the access object reading byte arrays in little-endian order by the selected strategy.
+     *
+     * @return a {@code Access} object which will read byte arrays as little-endian
+     */
+    public static Access<byte[]> instance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Get the access object reading byte arrays in the {@linkplain ByteOrder#nativeOrder()
+     * native} byte order by the selected strategy. On little-endian platforms, this is the same
+     * object as {@link #instance()}.
+     *
+     * @return a {@code Access} object which will read byte arrays in the native byte order
+     */
+    public static Access<byte[]> nativeOrderInstance() {
+        return NATIVE_ORDER_INSTANCE;
+    }
+
+    /**
+     * Returns the offset of the first element of byte arrays for the accesses of this class.
+     *
+     * @return the offset of array index 0
+     */
+    public static long baseOffset() {
+        return BASE_OFFSET;
+    }
+
+    /**
+     * Returns the offset of the first element of the given heap buffer's array, i.e. {@code
+     * baseOffset() + buffer.arrayOffset()}.
+     *
+     * @param buffer the buffer backed by an accessible array
+     * @return the offset of buffer index 0
+     */
+    public static long baseOffset(@NotNull final ByteBuffer buffer) {
+        return BASE_OFFSET + buffer.arrayOffset();
+    }
+
+    /**
+     * Returns whether the accesses of this class read off-heap memory by the address given as the
+     * offset, with {@code null} input, i.e. whether the {@code Unsafe} strategy is selected.
+     *
+     * @return {@code true} if direct buffers could be read at their {@link #address(ByteBuffer)}
+     */
+    public static boolean readsAddresses() {
+        return STRATEGY == Strategy.UNSAFE;
+    }
+
+    /**
+     * Returns the address of the given direct buffer's memory.
+     *
+     * @param buffer the direct buffer
+     * @return the address of buffer index 0
+     * @throws UnsupportedOperationException if this class doesn't {@linkplain #readsAddresses()
+     * read addresses}
+     */
+    public static long address(@NotNull final ByteBuffer buffer) {
+        if (STRATEGY != Strategy.UNSAFE)
+            throw new UnsupportedOperationException("off-heap memory is not readable by " + STRATEGY);
+        return UnsafeAccess.address(buffer);
+    }
+}
@@ -24,8 +24,13 @@ import java.nio.ByteOrder;
 public final class ByteBufferAccess extends Access<ByteBuffer> {
     @NotNull
     private static final Access<ByteBuffer> INSTANCE_LE = new ByteBufferAccess();
-    @NotNull
-    private static final Access<ByteBuffer> INSTANCE_BE = Access.reverse(INSTANCE_LE);
+
+    /**
+     * Holder of the access of big-endian buffers, which is not loaded until one is read.
+     */
+    private static final class BigEndian {
+        static final Access<ByteBuffer> INSTANCE = Access.reverse(INSTANCE_LE);
+    }
 
     /**
      * Get {@code this} or the reversed access object for reading the input as fixed
@@ -36,7 +41,7 @@ public final class ByteBufferAccess extends Access<ByteBuffer> {
      * byte order of {@code byteOrder}.
      */
     public static Access<ByteBuffer> instance(final ByteBuffer input) {
-        return input.order() == ByteOrder.LITTLE_ENDIAN ? INSTANCE_LE : INSTANCE_BE;
+        return input.order() == ByteOrder.LITTLE_ENDIAN ? INSTANCE_LE : BigEndian.INSTANCE;
     }
 
     private ByteBufferAccess() {}
@@ -46,6 +51,18 @@ public final class ByteBufferAccess extends Access<ByteBuffer> {
         return input.getLong((int) offset);
     }
 
+    /**
+     * Reads the values in a counted loop over absolute {@code getLong()}s, for which the JIT
+     * could hoist the bounds checks of the buffer out of the loop.
+     */
+    @Override
+    public void getLongs(ByteBuffer input, long offset, long[] dst, int dstOff, int count) {
+        final int off = (int) offset;
+        for (int i = 0; i < count; i++) {
+            dst[dstOff + i] = input.getLong(off + (i << 3));
+        }
+    }
+
     @Override
     public int getInt(ByteBuffer input, long offset) {
         return input.getInt((int) offset);
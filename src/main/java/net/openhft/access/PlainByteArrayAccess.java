@@ -0,0 +1,65 @@
+/*
+ * Copyright 2014 Higher Frequency Trading http://www.higherfrequencytrading.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.openhft.access;
+
+/**
+ * Reads of byte arrays in little-endian order, assembled from single bytes by plain Java code,
+ * for runtimes where neither {@code Unsafe} nor {@code VarHandle}s are available. Offsets are
+ * array indexes.
+ */
+final class PlainByteArrayAccess extends Access<byte[]> {
+    static final Access<byte[]> INSTANCE = new PlainByteArrayAccess();
+
+    private PlainByteArrayAccess() {}
+
+    @Override
+    public long getLong(final byte[] input, final long offset) {
+        final int i = (int) offset;
+        return (input[i] & 0xFFL)
+                | (input[i + 1] & 0xFFL) << 8
+                | (input[i + 2] & 0xFFL) << 16
+                | (input[i + 3] & 0xFFL) << 24
+                | (input[i + 4] & 0xFFL) << 32
+                | (input[i + 5] & 0xFFL) << 40
+                | (input[i + 6] & 0xFFL) << 48
+                | (input[i + 7] & 0xFFL) << 56;
+    }
+
+    @Override
+    public long getUnsignedInt(final byte[] input, final long offset) {
+        return getInt(input, offset) & 0xFFFFFFFFL;
+    }
+
+    @Override
+    public int getInt(final byte[] input, final long offset) {
+        final int i = (int) offset;
+        return (input[i] & 0xFF)
+                | (input[i + 1] & 0xFF) << 8
+                | (input[i + 2] & 0xFF) << 16
+                | (input[i + 3] & 0xFF) << 24;
+    }
+
+    @Override
+    public int getUnsignedByte(final byte[] input, final long offset) {
+        return input[(int) offset] & 0xFF;
+    }
+
+    @Override
+    public int getByte(final byte[] input, final long offset) {
+        return input[(int) offset];
+    }
+}
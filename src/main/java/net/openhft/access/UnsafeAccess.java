@@ -16,11 +16,11 @@
 
 package net.openhft.access;
 
+import net.openhft.internal.Unsafes;
 import org.jetbrains.annotations.NotNull;
 import sun.misc.Unsafe;
 import sun.nio.ch.DirectBuffer;
 
-import java.lang.reflect.Field;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 
@@ -28,23 +28,24 @@ public class UnsafeAccess extends Access<byte[]> {
     @NotNull
     private static final Unsafe UNSAFE;
     private static final long BYTE_BASE;
+    private static final long BUFFER_ADDRESS;
     @NotNull
     private static final Access<byte[]> INSTANCE_LE;
-    @NotNull
-    private static final Access<byte[]> INSTANCE_BE;
 
     static {
-        try {
-            Field theUnsafe = Unsafe.class.getDeclaredField("theUnsafe");
-            theUnsafe.setAccessible(true);
-            UNSAFE = (Unsafe) theUnsafe.get(null);
-
-            BYTE_BASE = UNSAFE.arrayBaseOffset(byte[].class);
-        } catch (final Exception e) {
-            throw new AssertionError(e);
-        }
+        UNSAFE = Unsafes.UNSAFE;
+        if (UNSAFE == null)
+            throw new AssertionError("sun.misc.Unsafe is not available, see ByteArrayAccess.strategy()");
+        BYTE_BASE = UNSAFE.arrayBaseOffset(byte[].class);
+        BUFFER_ADDRESS = Unsafes.BUFFER_ADDRESS;
         INSTANCE_LE = new UnsafeAccess();
-        INSTANCE_BE = Access.reverse(INSTANCE_LE);
+    }
+
+    /**
+     * Holder of the reversed access, which is not loaded on little-endian platforms.
+     */
+    private static final class Reversed {
+        static final Access<byte[]> INSTANCE = new ReversedUnsafeAccess();
     }
 
     /**
@@ -55,7 +56,23 @@ public class UnsafeAccess extends Access<byte[]> {
      * byte order of {@code byteOrder}.
      */
     public static Access<byte[]> instance() {
-        return ByteOrder.nativeOrder() == ByteOrder.LITTLE_ENDIAN ? INSTANCE_LE : INSTANCE_BE;
+        return ByteOrder.nativeOrder() == ByteOrder.LITTLE_ENDIAN ? INSTANCE_LE : Reversed.INSTANCE;
+    }
+
+    /**
+     * Get the access object reading the input in the {@linkplain ByteOrder#nativeOrder() native}
+     * byte order, i.e. without reversing the bytes of the reads on big-endian platforms. On
+     * little-endian platforms, this is the same object as {@link #instance()}.
+     *
+     * @return a {@code Access} object which will read the {@code input} with the native
+     * byte order.
+     */
+    public static Access<byte[]> nativeOrderInstance() {
+        return INSTANCE_LE;
+    }
+
+    static Access<byte[]> reversedInstance() { // package-private for tests
+        return Reversed.INSTANCE;
     }
 
     public static long baseOffset() {
@@ -66,10 +83,29 @@ public class UnsafeAccess extends Access<byte[]> {
         return BYTE_BASE + buffer.arrayOffset();
     }
 
+    /**
+     * Returns the address of the given direct {@code buffer}.
+     *
+     * @deprecated {@code sun.nio.ch.DirectBuffer} is not accessible by default from JDK 16, use
+     * {@link #address(ByteBuffer)} instead
+     */
+    @Deprecated
     public static long baseOffset(@NotNull final DirectBuffer buffer) {
         return buffer.address();
     }
 
+    /**
+     * Returns the address of the first byte of the given direct {@code buffer}. This doesn't
+     * require {@code sun.nio.ch} package to be exported, which is not the case by default from
+     * JDK 16.
+     *
+     * @param buffer a {@linkplain ByteBuffer#isDirect() direct} buffer
+     * @return the address of the buffer's memory, to be used with {@code null} input
+     */
+    public static long address(@NotNull final ByteBuffer buffer) {
+        return UNSAFE.getLong(buffer, BUFFER_ADDRESS);
+    }
+
     private UnsafeAccess() {}
 
     @Override
@@ -77,6 +113,13 @@ public class UnsafeAccess extends Access<byte[]> {
         return UNSAFE.getLong(input, offset);
     }
 
+    @Override
+    public void getLongs(byte[] input, long offset, long[] dst, int dstOff, int count) {
+        for (int i = 0; i < count; i++, offset += 8) {
+            dst[dstOff + i] = UNSAFE.getLong(input, offset);
+        }
+    }
+
     @Override
     public int getInt(byte[] input, long offset) {
         return UNSAFE.getInt(input, offset);
@@ -86,4 +129,33 @@ public class UnsafeAccess extends Access<byte[]> {
     public int getByte(byte[] input, long offset) {
         return UNSAFE.getByte(input, offset);
     }
-}
\ No newline at end of file
+
+    /**
+     * Reads in the reverse of the native byte order, with the byte reversal applied to the
+     * {@code Unsafe} reads directly, instead of to the reads of a delegate access: the JIT
+     * compiles them to byte-reversing loads, on platforms which have them.
+     */
+    private static final class ReversedUnsafeAccess extends UnsafeAccess {
+        @Override
+        public long getLong(byte[] input, long offset) {
+            return Long.reverseBytes(UNSAFE.getLong(input, offset));
+        }
+
+        @Override
+        public void getLongs(byte[] input, long offset, long[] dst, int dstOff, int count) {
+            for (int i = 0; i < count; i++, offset += 8) {
+                dst[dstOff + i] = Long.reverseBytes(UNSAFE.getLong(input, offset));
+            }
+        }
+
+        @Override
+        public long getUnsignedInt(byte[] input, long offset) {
+            return Integer.reverseBytes(UNSAFE.getInt(input, offset)) & 0xFFFFFFFFL;
+        }
+
+        @Override
+        public int getInt(byte[] input, long offset) {
+            return Integer.reverseBytes(UNSAFE.getInt(input, offset));
+        }
+    }
+}
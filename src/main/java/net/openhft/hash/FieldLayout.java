@@ -0,0 +1,208 @@
+/*
+ * Copyright 2014 Higher Frequency Trading http://www.higherfrequencytrading.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.openhft.hash;
+
+import net.openhft.internal.Unsafes;
+import org.jetbrains.annotations.NotNull;
+import sun.misc.Unsafe;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The hashed fields of a class, resolved once per class by {@link #of(Class)}: all non-static,
+ * non-transient fields of the class and its superclasses (superclass fields first, in declared
+ * order), each of a primitive type or {@code String}.
+ *
+ * <p>Fields are read by {@code Unsafe} at the resolved offsets. Fields which have no offset
+ * (those of records and hidden classes), or all fields if {@code Unsafe} is {@linkplain Unsafes
+ * not available}, are read by getter {@code MethodHandle}s instead, so no reflection is done on
+ * the hot path in either case. The layout is interpreted on each update rather than compiled to a
+ * hasher per class, as the library neither generates bytecode nor depends on a library which does.
+ */
+final class FieldLayout {
+    private static final Unsafe UNSAFE = Unsafes.UNSAFE;
+
+    private static final byte BOOLEAN = 0;
+    private static final byte BYTE = 1;
+    private static final byte CHAR = 2;
+    private static final byte SHORT = 3;
+    private static final byte INT = 4;
+    private static final byte FLOAT = 5;
+    private static final byte LONG = 6;
+    private static final byte DOUBLE = 7;
+    private static final byte STRING = 8;
+
+    private static final ClassValue<FieldLayout> LAYOUTS = new ClassValue<FieldLayout>() {
+        @Override
+        protected FieldLayout computeValue(final Class<?> type) {
+            return new FieldLayout(type, false);
+        }
+    };
+
+    @NotNull
+    private final byte[] kinds;
+    @NotNull
+    private final long[] offsets;
+    @NotNull
+    private final MethodHandle[] getters;
+
+    /**
+     * Returns the cached layout of the given class.
+     *
+     * @throws IllegalArgumentException if the class has a field of a type other than a
+     * primitive type or {@code String}, or is an array or an interface
+     */
+    static FieldLayout of(final Class<?> type) {
+        return LAYOUTS.get(type);
+    }
+
+    /**
+     * @param useGetters read all fields by {@code MethodHandle}s, for testing the path of records
+     */
+    FieldLayout(final Class<?> type, final boolean useGetters) {
+        if (type.isArray() || type.isInterface() || type.isPrimitive())
+            throw new IllegalArgumentException(type + " doesn't have hashable fields");
+        final List<Field> fields = new ArrayList<>();
+        collectFields(type, fields);
+        final int n = fields.size();
+        kinds = new byte[n];
+        offsets = new long[n];
+        getters = new MethodHandle[n];
+        for (int i = 0; i < n; i++) {
+            final Field field = fields.get(i);
+            kinds[i] = kind(field);
+            if (useGetters || UNSAFE == null) {
+                getters[i] = getter(field);
+                continue;
+            }
+            try {
+                offsets[i] = UNSAFE.objectFieldOffset(field);
+            } catch (final UnsupportedOperationException e) {
+                // records and hidden classes don't expose field offsets
+                getters[i] = getter(field);
+            }
+        }
+    }
+
+    private static void collectFields(final Class<?> type, final List<Field> fields) {
+        if (type == Object.class || type == null) {
+            return;
+        }
+        collectFields(type.getSuperclass(), fields);
+        for (final Field field : type.getDeclaredFields()) {
+            final int modifiers = field.getModifiers();
+            if (!Modifier.isStatic(modifiers) && !Modifier.isTransient(modifiers)) {
+                fields.add(field);
+            }
+        }
+    }
+
+    private static byte kind(final Field field) {
+        final Class<?> type = field.getType();
+        if (type == boolean.class) return BOOLEAN;
+        if (type == byte.class) return BYTE;
+        if (type == char.class) return CHAR;
+        if (type == short.class) return SHORT;
+        if (type == int.class) return INT;
+        if (type == float.class) return FLOAT;
+        if (type == long.class) return LONG;
+        if (type == double.class) return DOUBLE;
+        if (type == String.class) return STRING;
+        throw new IllegalArgumentException("field " + field + " is neither primitive nor String");
+    }
+
+    private static MethodHandle getter(final Field field) {
+        try {
+            field.setAccessible(true);
+            final MethodHandle getter = MethodHandles.lookup().unreflectGetter(field);
+            return getter.asType(MethodType.methodType(field.getType(), Object.class));
+        } catch (final Exception e) {
+            throw new IllegalArgumentException("field " + field + " is not accessible", e);
+        }
+    }
+
+    /**
+     * Feeds the fields of the given object to the state. Primitive values are fed in
+     * little-endian order, {@code boolean}s as a single byte of 0 or 1, {@code float}s and
+     * {@code double}s as their raw bits. A {@code String} is fed as its {@code int} length in
+     * chars followed by its UTF-8 encoding, or as -1 if it's {@code null}.
+     */
+    void update(final Object input, final HashState state) {
+        for (int i = 0; i < kinds.length; i++) {
+            final MethodHandle getter = getters[i];
+            if (getter == null) {
+                updateUnsafe(input, state, kinds[i], offsets[i]);
+            } else {
+                try {
+                    updateGetter(input, state, kinds[i], getter);
+                } catch (final RuntimeException | Error e) {
+                    throw e;
+                } catch (final Throwable e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        }
+    }
+
+    private static void updateUnsafe(final Object input, final HashState state,
+                                     final byte kind, final long offset) {
+        switch (kind) {
+            case BOOLEAN: state.updateByte(UNSAFE.getBoolean(input, offset) ? (byte) 1 : 0); break;
+            case BYTE: state.updateByte(UNSAFE.getByte(input, offset)); break;
+            case CHAR: updateShort(state, UNSAFE.getChar(input, offset)); break;
+            case SHORT: updateShort(state, UNSAFE.getShort(input, offset)); break;
+            case INT: case FLOAT: state.updateInt(UNSAFE.getInt(input, offset)); break;
+            case LONG: case DOUBLE: state.updateLong(UNSAFE.getLong(input, offset)); break;
+            default: updateString(state, (String) UNSAFE.getObject(input, offset));
+        }
+    }
+
+    private static void updateGetter(final Object input, final HashState state,
+                                     final byte kind, final MethodHandle getter) throws Throwable {
+        switch (kind) {
+            case BOOLEAN: state.updateByte((boolean) getter.invokeExact(input) ? (byte) 1 : 0); break;
+            case BYTE: state.updateByte((byte) getter.invokeExact(input)); break;
+            case CHAR: updateShort(state, (char) getter.invokeExact(input)); break;
+            case SHORT: updateShort(state, (short) getter.invokeExact(input)); break;
+            case INT: state.updateInt((int) getter.invokeExact(input)); break;
+            case FLOAT: state.updateInt(Float.floatToRawIntBits((float) getter.invokeExact(input))); break;
+            case LONG: state.updateLong((long) getter.invokeExact(input)); break;
+            case DOUBLE: state.updateLong(Double.doubleToRawLongBits((double) getter.invokeExact(input))); break;
+            default: updateString(state, (String) getter.invokeExact(input));
+        }
+    }
+
+    private static void updateShort(final HashState state, final int v) {
+        state.updateByte((byte) v);
+        state.updateByte((byte) (v >>> 8));
+    }
+
+    private static void updateString(final HashState state, final String s) {
+        if (s == null) {
+            state.updateInt(-1);
+        } else {
+            state.updateInt(s.length());
+            state.updateUtf8(s);
+        }
+    }
+}
@@ -24,4 +24,28 @@ public class Hash {
     public static HashFunction xx3() {
         return XxHash3.INSTANCE;
     }
+
+    /**
+     * Returns a {@linkplain XxHash3Tree tree hash} over {@link #xx3()} with leaves of {@link
+     * XxHash3Tree#DEFAULT_LEAF_SIZE 1 MiB}, which could hash large inputs in parallel. The root
+     * hash is {@code xx3()} of the little-endian leaf hashes and the input length, as defined
+     * by version 1 of the {@linkplain XxHash3Tree tree hash format}, which is stable, so the
+     * results could be persisted.
+     */
+    public static XxHash3Tree xx3Tree() {
+        return XxHash3Tree.DEFAULT;
+    }
+
+    /**
+     * Returns a {@linkplain XxHash3Tree tree hash} over {@link #xx3()} with leaves of the given
+     * size, which could hash large inputs in parallel. Tree hashes with different leaf sizes
+     * produce different results. The results follow the stable {@linkplain XxHash3Tree tree hash
+     * format} of {@link #xx3Tree()}.
+     *
+     * @param leafSize the number of bytes of each leaf, but the last one
+     * @throws IllegalArgumentException if {@code leafSize < XxHash3Tree.MIN_LEAF_SIZE}
+     */
+    public static XxHash3Tree xx3Tree(int leafSize) {
+        return leafSize == XxHash3Tree.DEFAULT_LEAF_SIZE ? XxHash3Tree.DEFAULT : new XxHash3Tree(leafSize);
+    }
 }
@@ -17,13 +17,20 @@
 package net.openhft.hash;
 
 import net.openhft.access.Access;
+import net.openhft.access.AsciiCharSequenceAccess;
+import net.openhft.access.ByteArrayAccess;
 import net.openhft.access.ByteBufferAccess;
-import net.openhft.access.UnsafeAccess;
+import net.openhft.internal.MappedBuffers;
+import net.openhft.internal.Strings;
 import org.jetbrains.annotations.NotNull;
-import sun.nio.ch.DirectBuffer;
 
+import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 
 import static java.nio.ByteOrder.LITTLE_ENDIAN;
 
@@ -66,6 +73,65 @@ import static java.nio.ByteOrder.LITTLE_ENDIAN;
  * do defensive checks, and access only bytes within the requested range.
  */
 public abstract class HashFunction {
+    /**
+     * Size of the memory-mapped windows {@link #hashFile(FileChannel, long, long)} reads files by.
+     */
+    private static final int MAP_WINDOW = 1 << 26;
+
+    private static final ByteBuffer EMPTY = ByteBuffer.allocate(0);
+
+    /**
+     * Holder of the case-folding accesses, which are not loaded until a string is hashed
+     * ignoring case.
+     */
+    static final class LowerCase {
+        static final Access<byte[]> BYTES = Access.lowerCaseAscii(ByteArrayAccess.instance());
+        static final Access<CharSequence> CHARS = Access.lowerCaseAscii(AsciiCharSequenceAccess.instance());
+    }
+
+    /**
+     * The per-thread states which the default implementations hash through, so they don't create
+     * a new state on every call.
+     */
+    private final ThreadLocal<Scratch> scratchStates = new ThreadLocal<Scratch>();
+
+    /**
+     * A {@linkplain #newState() state} of this function, reused by the calling thread.
+     */
+    static final class Scratch {
+        final HashState state;
+        boolean inUse;
+
+        Scratch(HashState state) {
+            this.state = state;
+        }
+
+        void release() {
+            inUse = false;
+        }
+    }
+
+    /**
+     * Returns a reset state of this function, owned by the caller until {@link Scratch#release()}.
+     * The state is created on the first call on each thread and reused by later calls; a nested
+     * call, e.g. from an {@code Access} hashing with this function again, gets a new state.
+     *
+     * @throws UnsupportedOperationException if this hash function doesn't support streaming
+     */
+    final Scratch scratch() { // package-private
+        Scratch scratch = scratchStates.get();
+        if (scratch == null) {
+            scratch = new Scratch(newState());
+            scratchStates.set(scratch);
+        } else if (scratch.inUse) {
+            scratch = new Scratch(newState());
+        } else {
+            scratch.state.reset();
+        }
+        scratch.inUse = true;
+        return scratch;
+    }
+
     /**
      * Returns the hash code for {@code len} continuous bytes of the given {@code input} object,
      * starting from the given offset. The abstraction of input as ordered byte sequence and
@@ -89,14 +155,14 @@ public abstract class HashFunction {
      * Shortcut for {@link #hashBytes(byte[], int, int) hashBytes(input, 0, input.length)}.
      */
     public long hashBytes(@NotNull byte[] input) {
-        return hash(input, UnsafeAccess.instance(), UnsafeAccess.baseOffset(), input.length);
+        return hash(input, ByteArrayAccess.instance(), ByteArrayAccess.baseOffset(), input.length);
     }
 
     /**
      * Returns the hash code for the specified subsequence of the given {@code byte} array.
      *
      * <p>Default implementation delegates to {@link #hash(Object, Access, long, long)} method
-     * using {@linkplain UnsafeAccess#instance()}  unsafe} {@code Access}.
+     * using {@linkplain ByteArrayAccess#instance() byte array} {@code Access}.
      *
      * @param input the array to read bytes from
      * @param off index of the first {@code byte} in the subsequence to hash
@@ -107,7 +173,7 @@ public abstract class HashFunction {
      */
     public long hashBytes(@NotNull byte[] input, int off, int len) {
         checkBounds(off, len, input.length);
-        return hash(input, UnsafeAccess.instance(), UnsafeAccess.baseOffset() + off, len);
+        return hash(input, ByteArrayAccess.instance(), ByteArrayAccess.baseOffset() + off, len);
     }
 
     /**
@@ -139,17 +205,618 @@ public abstract class HashFunction {
         return hashByteBuffer(input, off, len);
     }
 
+    /**
+     * Shortcut for {@link #hashBytes(ByteBuffer[], int, int) hashBytes(srcs, 0, srcs.length)}.
+     */
+    public long hashBytes(@NotNull ByteBuffer[] srcs) {
+        return hashBytes(srcs, 0, srcs.length);
+    }
+
+    /**
+     * Returns the hash code for the concatenation of the remaining bytes (from position to limit)
+     * of the given subsequence of buffers, like {@link
+     * java.nio.channels.GatheringByteChannel#write(ByteBuffer[], int, int)} would write them.
+     *
+     * <p>This method doesn't alter the state (mark, position, limit or order) of the given
+     * {@code ByteBuffer}s, and doesn't copy them into a single buffer.
+     *
+     * <p>Default implementation delegates to {@link #hashBytes(ByteBuffer)} if at most one of the
+     * buffers has remaining bytes, otherwise feeds the buffers to a {@linkplain #newState() state}
+     * reused by the calling thread, which carries the bytes over from one buffer to the next. Only
+     * the first such call on a thread allocates, to create the state.
+     *
+     * @param srcs the buffers to read bytes from
+     * @param offset index of the first buffer in the subsequence of buffers
+     * @param length number of buffers in the subsequence
+     * @return hash code for the concatenated bytes
+     * @throws IndexOutOfBoundsException if {@code offset < 0} or {@code offset + length >
+     * srcs.length} or {@code length < 0}
+     */
+    public long hashBytes(@NotNull ByteBuffer[] srcs, int offset, int length) {
+        checkBounds(offset, length, srcs.length);
+        int nonEmpty = -1;
+        for (int i = offset; i < offset + length; i++) {
+            if (srcs[i].hasRemaining()) {
+                if (nonEmpty >= 0) {
+                    final Scratch scratch = scratch();
+                    try {
+                        scratch.state.updateBytes(srcs, offset, length);
+                        return scratch.state.hash();
+                    } finally {
+                        scratch.release();
+                    }
+                }
+                nonEmpty = i;
+            }
+        }
+        return hashBytes(nonEmpty >= 0 ? srcs[nonEmpty] : EMPTY);
+    }
+
+    /**
+     * Returns the hash code for the specified subsequence of the given {@code byte} array, xored
+     * with the given mask repeated every 8 bytes: {@code input[off + i]} is xored with the byte
+     * {@code i & 7} of the mask, counting from the least significant one. The bytes are unmasked
+     * as they are read by {@link Access#xor(Access, long, long)}, without making an unmasked copy.
+     *
+     * <p>For example, a WebSocket frame payload with 4-byte masking key {@code k} (as read from
+     * the frame in little-endian order) is hashed with mask {@code (k & 0xFFFFFFFFL) *
+     * 0x100000001L}. To start from the byte {@code j} of the mask, pass
+     * {@code Long.rotateRight(mask, 8 * j)}.
+     *
+     * @param input the array to read bytes from
+     * @param off index of the first {@code byte} in the subsequence to hash
+     * @param len length of the subsequence to hash
+     * @param mask 8 bytes to xor the input with
+     * @return hash code for the unmasked subsequence
+     * @throws IndexOutOfBoundsException if {@code off < 0} or {@code off + len > input.length}
+     * or {@code len < 0}
+     */
+    public long hashBytesXor(@NotNull byte[] input, int off, int len, long mask) {
+        checkBounds(off, len, input.length);
+        final long offset = ByteArrayAccess.baseOffset() + off;
+        return hash(input, Access.xor(ByteArrayAccess.instance(), mask, -offset), offset, len);
+    }
+
+    /**
+     * Returns the hash code for the remaining bytes (from position to limit) of the given
+     * {@code ByteBuffer}, xored with the given mask like in {@link
+     * #hashBytesXor(byte[], int, int, long)}, the byte at the position is xored with the least
+     * significant byte of the mask.
+     *
+     * <p>This method doesn't alter the state (mark, position, limit or order) of the given
+     * {@code ByteBuffer}.
+     *
+     * @param input the buffer to read bytes from
+     * @param mask 8 bytes to xor the input with
+     * @return hash code for the unmasked remaining bytes
+     */
+    public long hashBytesXor(@NotNull ByteBuffer input, long mask) {
+        final int off = input.position();
+        final int len = input.remaining();
+        if (input.hasArray()) {
+            final long offset = ByteArrayAccess.baseOffset(input) + off;
+            return hash(input.array(), Access.xor(ByteArrayAccess.instance(), mask, -offset), offset, len);
+        } else if (input.isDirect() && ByteArrayAccess.readsAddresses()) {
+            final long offset = ByteArrayAccess.address(input) + off;
+            return hash(null, Access.xor(ByteArrayAccess.instance(), mask, -offset), offset, len);
+        } else {
+            return hash(input, Access.xor(ByteBufferAccess.instance(input), mask, -off), off, len);
+        }
+    }
+
+    /**
+     * Returns the hash code for the specified subsequence of the given {@code byte} array, with
+     * each byte {@code b} translated to {@code table[b & 0xFF]}. The bytes are translated as they
+     * are read by {@link Access#map(Access, byte[])}, without making a translated copy.
+     *
+     * @param input the array to read bytes from
+     * @param off index of the first {@code byte} in the subsequence to hash
+     * @param len length of the subsequence to hash
+     * @param table translation of all 256 byte values
+     * @return hash code for the translated subsequence
+     * @throws IndexOutOfBoundsException if {@code off < 0} or {@code off + len > input.length}
+     * or {@code len < 0}
+     * @throws IllegalArgumentException if the length of the table is not 256
+     */
+    public long hashBytesMapped(@NotNull byte[] input, int off, int len, @NotNull byte[] table) {
+        checkBounds(off, len, input.length);
+        return hash(input, Access.map(ByteArrayAccess.instance(), table), ByteArrayAccess.baseOffset() + off, len);
+    }
+
+    /**
+     * Returns the hash code for the remaining bytes (from position to limit) of the given
+     * {@code ByteBuffer}, translated by the given table like in {@link
+     * #hashBytesMapped(byte[], int, int, byte[])}.
+     *
+     * <p>This method doesn't alter the state (mark, position, limit or order) of the given
+     * {@code ByteBuffer}.
+     *
+     * @param input the buffer to read bytes from
+     * @param table translation of all 256 byte values
+     * @return hash code for the translated remaining bytes
+     * @throws IllegalArgumentException if the length of the table is not 256
+     */
+    public long hashBytesMapped(@NotNull ByteBuffer input, @NotNull byte[] table) {
+        final int off = input.position();
+        final int len = input.remaining();
+        if (input.hasArray()) {
+            return hash(input.array(), Access.map(ByteArrayAccess.instance(), table),
+                    ByteArrayAccess.baseOffset(input) + off, len);
+        } else if (input.isDirect() && ByteArrayAccess.readsAddresses()) {
+            return hash(null, Access.map(ByteArrayAccess.instance(), table),
+                    ByteArrayAccess.address(input) + off, len);
+        } else {
+            return hash(input, Access.map(ByteBufferAccess.instance(input), table), off, len);
+        }
+    }
+
+    /**
+     * Computes the hash codes of many keys laid out in the given {@code byte} array: key {@code
+     * i} is the subsequence of {@code lengths[i]} bytes starting from index {@code offsets[i]},
+     * and its hash code, equal to {@code hashBytes(data, offsets[i], lengths[i])}, is stored to
+     * {@code out[i]}.
+     *
+     * <p>All keys are checked to be within the array before any is hashed. Default implementation
+     * delegates to {@link #hashBatch(Object, Access, long, int[], int[], long[])}.
+     *
+     * @param data the array to read keys from
+     * @param offsets indexes of the first bytes of the keys
+     * @param lengths lengths of the keys
+     * @param out the array to store the hash codes to
+     * @throws IllegalArgumentException if {@code lengths} or {@code out} is shorter than {@code
+     * offsets}
+     * @throws IndexOutOfBoundsException if any key exceeds the bounds of the array
+     */
+    public void hashBatch(@NotNull byte[] data, @NotNull int[] offsets, @NotNull int[] lengths,
+                          @NotNull long[] out) {
+        checkBatch(data.length, offsets, lengths, out);
+        hashBatch(data, ByteArrayAccess.instance(), ByteArrayAccess.baseOffset(), offsets, lengths, out);
+    }
+
+    /**
+     * Computes the hash codes of many keys laid out in the given {@code ByteBuffer}, e.g. a
+     * direct buffer off-heap, like {@link #hashBatch(byte[], int[], int[], long[])}: the
+     * hash code of key {@code i} is equal to {@code hashBytes(data, offsets[i], lengths[i])}.
+     *
+     * <p>This method doesn't alter the state (mark, position, limit or order) of the given
+     * {@code ByteBuffer}.
+     *
+     * @param data the buffer to read keys from
+     * @param offsets indexes of the first bytes of the keys
+     * @param lengths lengths of the keys
+     * @param out the array to store the hash codes to
+     * @throws IllegalArgumentException if {@code lengths} or {@code out} is shorter than {@code
+     * offsets}
+     * @throws IndexOutOfBoundsException if any key exceeds the capacity of the buffer
+     */
+    public void hashBatch(@NotNull ByteBuffer data, @NotNull int[] offsets, @NotNull int[] lengths,
+                          @NotNull long[] out) {
+        checkBatch(data.capacity(), offsets, lengths, out);
+        if (data.hasArray()) {
+            hashBatch(data.array(), ByteArrayAccess.instance(), ByteArrayAccess.baseOffset(data),
+                    offsets, lengths, out);
+        } else if (data.isDirect() && ByteArrayAccess.readsAddresses()) {
+            hashBatch(null, ByteArrayAccess.instance(), ByteArrayAccess.address(data), offsets, lengths, out);
+        } else {
+            hashBatch(data, ByteBufferAccess.instance(data), 0, offsets, lengths, out);
+        }
+    }
+
+    /**
+     * Computes the hash codes of {@code count} keys of the same length, laid out back to back in
+     * the given {@code byte} array from index {@code off}, like a column of fixed-width keys: key
+     * {@code i} starts from index {@code off + i * keyLength}, and its hash code, equal to {@code
+     * hashBytes(data, off + i * keyLength, keyLength)}, is stored to {@code out[i]}.
+     *
+     * <p>Default implementation delegates to {@link #hashBatch(Object, Access, long, int, int,
+     * long[])}.
+     *
+     * @param data the array to read keys from
+     * @param off index of the first byte of the first key
+     * @param keyLength length of each key
+     * @param count number of keys
+     * @param out the array to store the hash codes to
+     * @throws IllegalArgumentException if {@code out.length < count}
+     * @throws IndexOutOfBoundsException if {@code off}, {@code keyLength} or {@code count} is
+     * negative, or the keys exceed the bounds of the array
+     */
+    public void hashBatch(@NotNull byte[] data, int off, int keyLength, int count,
+                          @NotNull long[] out) {
+        checkBatch(data.length, off, keyLength, count, out);
+        hashBatch(data, ByteArrayAccess.instance(), ByteArrayAccess.baseOffset() + off, keyLength, count, out);
+    }
+
+    /**
+     * Computes the hash codes of {@code count} keys of the same length, laid out back to back in
+     * the given {@code ByteBuffer} from index {@code off}, like {@link #hashBatch(byte[], int,
+     * int, int, long[])}.
+     *
+     * <p>This method doesn't alter the state (mark, position, limit or order) of the given
+     * {@code ByteBuffer}.
+     *
+     * @param data the buffer to read keys from
+     * @param off index of the first byte of the first key
+     * @param keyLength length of each key
+     * @param count number of keys
+     * @param out the array to store the hash codes to
+     * @throws IllegalArgumentException if {@code out.length < count}
+     * @throws IndexOutOfBoundsException if {@code off}, {@code keyLength} or {@code count} is
+     * negative, or the keys exceed the capacity of the buffer
+     */
+    public void hashBatch(@NotNull ByteBuffer data, int off, int keyLength, int count,
+                          @NotNull long[] out) {
+        checkBatch(data.capacity(), off, keyLength, count, out);
+        if (data.hasArray()) {
+            hashBatch(data.array(), ByteArrayAccess.instance(), ByteArrayAccess.baseOffset(data) + off,
+                    keyLength, count, out);
+        } else if (data.isDirect() && ByteArrayAccess.readsAddresses()) {
+            hashBatch(null, ByteArrayAccess.instance(), ByteArrayAccess.address(data) + off,
+                    keyLength, count, out);
+        } else {
+            hashBatch(data, ByteBufferAccess.instance(data), off, keyLength, count, out);
+        }
+    }
+
+    /**
+     * Computes the hash codes of {@code count} keys of {@code keyLength} bytes of the given
+     * {@code input} object, laid out back to back from the given offset, storing the hash code of
+     * key {@code i} to {@code out[i]}. The bounds of the keys are already checked.
+     *
+     * <p>Default implementation calls {@link #hash(Object, Access, long, long)} for each key.
+     * Implementations could override it to hash several keys at once, as all keys take the same
+     * path of the hash function.
+     *
+     * @param input the object to read bytes from
+     * @param access access which defines the abstraction of the given input
+     *               as ordered byte sequence
+     * @param off offset to the first byte of the first key
+     * @param keyLength length of each key
+     * @param count number of keys
+     * @param out the array to store the hash codes to
+     * @param <T> the type of the input
+     */
+    protected <T> void hashBatch(T input, Access<T> access, long off, int keyLength, int count,
+                                 long[] out) {
+        for (int i = 0; i < count; i++, off += keyLength) {
+            out[i] = hash(input, access, off, keyLength);
+        }
+    }
+
+    /**
+     * Computes the hash codes of {@code offsets.length} keys of the given {@code input} object,
+     * storing the hash code of {@code lengths[i]} continuous bytes starting from offset {@code
+     * base + offsets[i]} to {@code out[i]}. The bounds of the keys are already checked.
+     *
+     * <p>Default implementation calls {@link #hash(Object, Access, long, long)} for each key.
+     * Implementations could override it to set up the hashing of all keys once.
+     *
+     * @param input the object to read bytes from
+     * @param access access which defines the abstraction of the given input
+     *               as ordered byte sequence
+     * @param base offset, which the offsets of the keys are relative to
+     * @param offsets offsets to the first bytes of the keys, relative to {@code base}
+     * @param lengths lengths of the keys
+     * @param out the array to store the hash codes to
+     * @param <T> the type of the input
+     */
+    protected <T> void hashBatch(T input, Access<T> access, long base,
+                                 int[] offsets, int[] lengths, long[] out) {
+        for (int i = 0; i < offsets.length; i++) {
+            out[i] = hash(input, access, base + offsets[i], lengths[i]);
+        }
+    }
+
+    /**
+     * Returns the hash code for the 16 bytes of the little-endian representations of the given
+     * {@code long} values, i.e. the same as {@code
+     * hashBytes(ByteBuffer.allocate(16).order(LITTLE_ENDIAN).putLong(a).putLong(b).array())},
+     * without serializing them into an array.
+     *
+     * <p>Default implementation feeds the values to a {@linkplain #newState() state} reused by the
+     * calling thread.
+     *
+     * @param a the first {@code long} of the key
+     * @param b the second {@code long} of the key
+     * @return hash code for the concatenated values
+     */
+    public long hash(long a, long b) {
+        final Scratch scratch = scratch();
+        try {
+            scratch.state.updateLong(a);
+            scratch.state.updateLong(b);
+            return scratch.state.hash();
+        } finally {
+            scratch.release();
+        }
+    }
+
+    /**
+     * Returns the hash code for the little-endian representation of the given {@code long}
+     * value, followed by the specified subsequence of the given {@code byte} array, without
+     * concatenating them into an array.
+     *
+     * <p>Default implementation feeds the value and the bytes to a {@linkplain #newState() state}
+     * reused by the calling thread, i.e. the value is buffered to the first stripe, and the bytes
+     * are read right from the array.
+     *
+     * @param prefix the {@code long} to prepend to the bytes
+     * @param input the array to read bytes from
+     * @param off index of the first {@code byte} in the subsequence to hash
+     * @param len length of the subsequence to hash
+     * @return hash code for the concatenated value and bytes
+     * @throws IndexOutOfBoundsException if {@code off < 0} or {@code off + len > input.length}
+     * or {@code len < 0}
+     */
+    public long hash(long prefix, @NotNull byte[] input, int off, int len) {
+        checkBounds(off, len, input.length);
+        final Scratch scratch = scratch();
+        try {
+            scratch.state.updateLong(prefix);
+            scratch.state.updateBytes(input, off, len);
+            return scratch.state.hash();
+        } finally {
+            scratch.release();
+        }
+    }
+
+    /**
+     * Returns the hash code for the little-endian representations of the given {@code long}
+     * values, followed by the UTF-8 encoding of the given {@code CharSequence}, without
+     * concatenating and encoding them into an array.
+     *
+     * <p>Default implementation feeds the values and the sequence to a {@linkplain #newState()
+     * state} reused by the calling thread.
+     *
+     * @param a the first {@code long} of the key
+     * @param b the second {@code long} of the key
+     * @param input the char sequence to hash the UTF-8 encoding of
+     * @return hash code for the concatenated values and UTF-8 encoding
+     * @see #hashUtf8(CharSequence)
+     */
+    public long hash(long a, long b, @NotNull CharSequence input) {
+        final Scratch scratch = scratch();
+        try {
+            scratch.state.updateLong(a);
+            scratch.state.updateLong(b);
+            scratch.state.updateUtf8(input);
+            return scratch.state.hash();
+        } finally {
+            scratch.release();
+        }
+    }
+
+    /**
+     * Returns the hash code for the UTF-8 encoding of the given {@code CharSequence}, i.e. the same
+     * as {@code hashBytes(input.toString().getBytes(StandardCharsets.UTF_8))}, but without encoding
+     * it into an array.
+     *
+     * <p>Default implementation hashes ASCII-only inputs right from the sequence, or from the
+     * internal array of a compact {@code String}, without copying and allocation. Other inputs are
+     * encoded on the fly by {@link HashState#updateUtf8(CharSequence)} of a {@linkplain #newState()
+     * state} reused by the calling thread, so only the first such call on a thread allocates.
+     *
+     * @param input the char sequence to hash the UTF-8 encoding of
+     * @return hash code for the UTF-8 encoding of the sequence
+     */
+    public long hashUtf8(@NotNull CharSequence input) {
+        return hashUtf8(input, ByteArrayAccess.instance(), AsciiCharSequenceAccess.instance());
+    }
+
+    /**
+     * Returns the hash code for the UTF-8 encoding of the given {@code CharSequence} with ASCII
+     * upper case letters converted to lower case, i.e. the same as {@code
+     * hashUtf8(input.toString().toLowerCase(Locale.ROOT))} for ASCII-only inputs. Non-ASCII chars
+     * are hashed as is.
+     *
+     * <p>Like {@link #hashUtf8(CharSequence)}, hashes ASCII-only inputs without copying and
+     * allocation; case is folded 8 bytes at a time while the input is read, by the {@link
+     * Access#lowerCaseAscii(Access)} access. Other inputs are encoded on the fly by {@link
+     * HashState#updateUtf8IgnoreAsciiCase(CharSequence)} of a {@linkplain #newState() state}
+     * reused by the calling thread.
+     *
+     * @param input the char sequence to hash the case-folded UTF-8 encoding of
+     * @return hash code for the case-folded UTF-8 encoding of the sequence
+     */
+    public long hashUtf8IgnoreAsciiCase(@NotNull CharSequence input) {
+        return hashUtf8(input, LowerCase.BYTES, LowerCase.CHARS);
+    }
+
+    private long hashUtf8(@NotNull CharSequence input,
+                          Access<byte[]> bytesAccess, Access<CharSequence> charsAccess) {
+        if (input instanceof String) {
+            final byte[] latin1 = Strings.latin1Bytes((String) input);
+            if (latin1 != null && Strings.asciiEnd(latin1, 0, latin1.length) == latin1.length) {
+                return hash(latin1, bytesAccess, ByteArrayAccess.baseOffset(), latin1.length);
+            }
+        }
+        final int len = input.length();
+        if (Strings.asciiEnd(input, 0, len) == len) {
+            return hash(input, charsAccess, 0, len);
+        }
+        final Scratch scratch = scratch();
+        try {
+            scratch.state.updateUtf8(input, bytesAccess, charsAccess);
+            return scratch.state.hash();
+        } finally {
+            scratch.release();
+        }
+    }
+
+    /**
+     * Returns the hash code for the fields of the given "flat" object, i.e. of its primitive and
+     * {@code String} fields, encoded as by {@link HashState#updateFields(Object)}, without
+     * serializing the object.
+     *
+     * <p>Default implementation feeds the object to a {@linkplain #newState() state} reused by the
+     * calling thread.
+     *
+     * @param input the object to hash the fields of
+     * @return hash code for the fields of the object
+     * @throws IllegalArgumentException if the object has a field of a type other than a
+     * primitive type or {@code String}, or is an array
+     */
+    public long hashFields(@NotNull Object input) {
+        final Scratch scratch = scratch();
+        try {
+            scratch.state.updateFields(input);
+            return scratch.state.hash();
+        } finally {
+            scratch.release();
+        }
+    }
+
     private long hashByteBuffer(@NotNull ByteBuffer input, int off, int len) {
         if (input.hasArray()) {
-            return hash(input.array(), UnsafeAccess.instance(),UnsafeAccess.baseOffset(input) + off, len);
-        } else if (input instanceof DirectBuffer) {
-            return hash(null, UnsafeAccess.instance(), UnsafeAccess.baseOffset((DirectBuffer)input) + off, len);
+            return hash(input.array(), ByteArrayAccess.instance(),ByteArrayAccess.baseOffset(input) + off, len);
+        } else if (input.isDirect() && ByteArrayAccess.readsAddresses()) {
+            return hash(null, ByteArrayAccess.instance(), ByteArrayAccess.address(input) + off, len);
         } else {
             return hash(input, ByteBufferAccess.instance(input), off, len);
         }
     }
 
-    private static void checkBounds(int off, int len, int size) { // package-private
+    /**
+     * Shortcut for {@link #hashFile(FileChannel, long, long) hashFile(channel, 0, channel.size())},
+     * where {@code channel} is the file at the given path opened for reading, which is closed
+     * before return.
+     */
+    public long hashFile(@NotNull Path path) throws IOException {
+        final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            return hashFile(channel, 0, channel.size());
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * Returns the hash code for {@code len} bytes of the given file, starting from the given
+     * position, without reading the file content into the Java heap.
+     *
+     * <p>The region is memory-mapped window by window, each window is unmapped as soon as it's
+     * hashed, so files of any size could be hashed in bounded address space. A region larger than
+     * one window is hashed by a {@linkplain #newState() streaming state}, which gives the same
+     * result as hashing the whole region at once. The channel's position is not changed.
+     *
+     * @param channel the file to read bytes from
+     * @param pos position of the first byte in the file to hash
+     * @param len number of bytes to hash
+     * @return hash code for the specified region of the file
+     * @throws IndexOutOfBoundsException if {@code pos < 0} or {@code pos + len > channel.size()}
+     * or {@code len < 0}
+     * @throws UnsupportedOperationException if the region is larger than one window and this
+     * function doesn't support streaming
+     * @throws IOException if an I/O error occurs
+     */
+    public long hashFile(@NotNull FileChannel channel, long pos, long len) throws IOException {
+        return hashFile(channel, pos, len, MAP_WINDOW);
+    }
+
+    long hashFile(@NotNull FileChannel channel, long pos, long len, int window) throws IOException { // package-private
+        checkBounds(pos, len, channel.size());
+        if (len <= window) {
+            final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, pos, len);
+            try {
+                return hashBytes(buffer);
+            } finally {
+                MappedBuffers.unmap(buffer);
+            }
+        }
+        final HashState state = newState();
+        for (long end = pos + len; pos < end; pos += window) {
+            final long size = end - pos < window ? end - pos : window;
+            final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, pos, size);
+            try {
+                state.updateBytes(buffer);
+            } finally {
+                MappedBuffers.unmap(buffer);
+            }
+        }
+        return state.hash();
+    }
+
+    /**
+     * Returns a new {@link HashState} computing the same hash as this function does, but over a byte
+     * sequence which is fed to the state in arbitrary chunks, i.e. {@code state.hash()} is equal to
+     * {@code hashBytes(concatenation of all chunks)}.
+     *
+     * <p>Default implementation throws {@code UnsupportedOperationException}.
+     *
+     * @return a new streaming state of this hash function
+     * @throws UnsupportedOperationException if this hash function doesn't support streaming
+     */
+    public HashState newState() {
+        throw new UnsupportedOperationException(getClass().getName() + " doesn't support streaming");
+    }
+
+    /**
+     * Returns a hash function computing the same hash codes as this function, specialized for
+     * inputs of the given length: inputs of exactly {@code len} bytes are hashed by a kernel with
+     * the length-dependent branching folded away, other inputs are hashed by this function.
+     *
+     * <p>Default implementation returns this function.
+     *
+     * @param len the length of the inputs to specialize for
+     * @return a hash function equivalent to this one, and faster for inputs of {@code len} bytes
+     * @throws IllegalArgumentException if {@code len < 0}
+     */
+    public HashFunction forFixedLength(int len) {
+        if (len < 0)
+            throw new IllegalArgumentException("length should be non-negative, " + len + " given");
+        return this;
+    }
+
+    /**
+     * Returns a hash function reading byte sequences in the {@linkplain ByteOrder#nativeOrder()
+     * native} byte order, for callers which don't need the hash codes to be the same on platforms
+     * with different byte orders.
+     *
+     * <p>Hash functions read multi-byte words of the input as little-endian, which costs a byte
+     * reversal per read on big-endian platforms. The returned function skips it: the byte
+     * sequences of arrays, off-heap memory and single {@code ByteBuffer}s, hashed by {@code
+     * hashBytes()} and {@code hashBatch()}, are read as is, so on big-endian platforms their
+     * hash codes differ from the hash codes of this function, and from the hash codes of the same
+     * function on little-endian platforms.
+     *
+     * <p>All other inputs are hashed by this function, with the same hash codes: values,
+     * strings, objects, masked and mapped bytes, a {@linkplain #hash(long, byte[], int, int)
+     * prefix with an array}, {@linkplain #hashBytes(ByteBuffer[], int, int) several buffers},
+     * {@linkplain #hashFile(FileChannel, long, long) files}, and byte sequences fed to a
+     * {@linkplain #newState() state}, which is the state of this function: reading them in native
+     * order wouldn't give the same hash codes for the same bytes split differently.
+     *
+     * <p>On little-endian platforms, this method returns this function.
+     *
+     * @return a hash function equivalent to this one on little-endian platforms, and faster on
+     * big-endian ones
+     */
+    public HashFunction withNativeByteOrder() {
+        return ByteOrder.nativeOrder() == LITTLE_ENDIAN ? this : NativeOrderHashFunction.of(this);
+    }
+
+    private static void checkBatch(int size, int[] offsets, int[] lengths, long[] out) {
+        final int n = offsets.length;
+        if (lengths.length < n || out.length < n)
+            throw new IllegalArgumentException("lengths and out should have at least " + n + " elements");
+        for (int i = 0; i < n; i++) {
+            checkBounds(offsets[i], lengths[i], size);
+        }
+    }
+
+    private static void checkBatch(int size, int off, int keyLength, int count, long[] out) {
+        if (out.length < count)
+            throw new IllegalArgumentException("out should have at least " + count + " elements");
+        if ((keyLength | count) < 0)
+            throw new IndexOutOfBoundsException();
+        checkBounds(off, (long) keyLength * count, size);
+    }
+
+    static void checkBounds(int off, int len, int size) { // package-private
+        if ((off | len | (off + len) | (size - (off + len))) < 0)
+            throw new IndexOutOfBoundsException();
+    }
+
+    static void checkBounds(long off, long len, long size) { // package-private
         if ((off | len | (off + len) | (size - (off + len))) < 0)
             throw new IndexOutOfBoundsException();
     }
@@ -0,0 +1,330 @@
+/*
+ * Copyright 2014 Higher Frequency Trading http://www.higherfrequencytrading.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.openhft.hash;
+
+import net.openhft.access.Access;
+import net.openhft.access.AsciiCharSequenceAccess;
+import net.openhft.access.ByteArrayAccess;
+import net.openhft.access.ByteBufferAccess;
+import net.openhft.internal.Strings;
+import org.jetbrains.annotations.NotNull;
+
+import java.nio.ByteBuffer;
+
+import static net.openhft.hash.Reads.i64;
+import static net.openhft.hash.Reads.i8;
+
+/**
+ * Streaming state of a {@link HashFunction}, accumulating a byte sequence which is fed in
+ * arbitrary chunks. After any sequence of updates, {@link #hash()} returns the same value as the
+ * originating hash function returns for the concatenation of all the chunks.
+ *
+ * <p>States are created by {@link HashFunction#newState()}. A state owns all the memory it
+ * needs, so updating, querying and {@linkplain #reset() resetting} it doesn't allocate. States
+ * are not thread-safe.
+ *
+ * <h2>Subclassing</h2>
+ * Only {@link #reset()}, {@link #updateByte(byte)}, {@link #hash()} and
+ * {@link #update(Object, Access, long, long)} should be implemented; other methods delegate to
+ * {@link #update(Object, Access, long, long)} in the end.
+ *
+ * @see HashFunction#newState()
+ */
+public abstract class HashState {
+    /**
+     * Constructor for use in subclasses.
+     */
+    protected HashState() {}
+
+    /**
+     * Resets this state to the initial one, as if no bytes were fed to it.
+     */
+    public abstract void reset();
+
+    /**
+     * Returns the hash code of all the bytes fed to this state since its creation or the last
+     * {@link #reset()}. This method doesn't alter the state, so it could be called any number
+     * of times and followed by further updates.
+     *
+     * @return hash code of the accumulated byte sequence
+     */
+    public abstract long hash();
+
+    /**
+     * Feeds a single byte to this state.
+     *
+     * @param input the byte to append to the accumulated byte sequence
+     */
+    public abstract void updateByte(byte input);
+
+    /**
+     * Feeds the 8 bytes of the little-endian representation of the given {@code long} value to
+     * this state.
+     *
+     * @param input the value to append to the accumulated byte sequence
+     */
+    public void updateLong(long input) {
+        for (int i = 0; i < 8; i++) {
+            updateByte((byte) (input >>> (i << 3)));
+        }
+    }
+
+    /**
+     * Feeds the 4 bytes of the little-endian representation of the given {@code int} value to
+     * this state.
+     *
+     * @param input the value to append to the accumulated byte sequence
+     */
+    public void updateInt(int input) {
+        for (int i = 0; i < 4; i++) {
+            updateByte((byte) (input >>> (i << 3)));
+        }
+    }
+
+    /**
+     * Feeds {@code len} continuous bytes of the given {@code input} object, starting from the
+     * given offset, to this state. The abstraction of input as ordered byte sequence is defined
+     * by the given {@code access} strategy, like for {@link HashFunction#hash(Object, Access,
+     * long, long)}.
+     *
+     * @param input the object to read bytes from
+     * @param access access which defines the abstraction of the given input
+     *               as ordered byte sequence
+     * @param off offset to the first byte of the subsequence to feed
+     * @param len length of the subsequence to feed
+     * @param <T> the type of the input
+     */
+    protected abstract <T> void update(T input, Access<T> access, long off, long len);
+
+    /**
+     * Shortcut for {@link #updateBytes(byte[], int, int) updateBytes(input, 0, input.length)}.
+     */
+    public void updateBytes(@NotNull byte[] input) {
+        update(input, ByteArrayAccess.instance(), ByteArrayAccess.baseOffset(), input.length);
+    }
+
+    /**
+     * Feeds the specified subsequence of the given {@code byte} array to this state.
+     *
+     * @param input the array to read bytes from
+     * @param off index of the first {@code byte} in the subsequence to feed
+     * @param len length of the subsequence to feed
+     * @throws IndexOutOfBoundsException if {@code off < 0} or {@code off + len > input.length}
+     * or {@code len < 0}
+     */
+    public void updateBytes(@NotNull byte[] input, int off, int len) {
+        HashFunction.checkBounds(off, len, input.length);
+        update(input, ByteArrayAccess.instance(), ByteArrayAccess.baseOffset() + off, len);
+    }
+
+    /**
+     * Shortcut for {@link #updateBytes(ByteBuffer, int, int)
+     * updateBytes(input, input.position(), input.remaining())}.
+     */
+    public void updateBytes(@NotNull ByteBuffer input) {
+        updateByteBuffer(input, input.position(), input.remaining());
+    }
+
+    /**
+     * Feeds the specified subsequence of the given {@code ByteBuffer} to this state.
+     *
+     * <p>This method doesn't alter the state (mark, position, limit or order) of the given
+     * {@code ByteBuffer}.
+     *
+     * @param input the buffer to read bytes from
+     * @param off index of the first {@code byte} in the subsequence to feed
+     * @param len length of the subsequence to feed
+     * @throws IndexOutOfBoundsException if {@code off < 0} or {@code off + len > input.capacity()}
+     * or {@code len < 0}
+     */
+    public void updateBytes(@NotNull ByteBuffer input, int off, int len) {
+        HashFunction.checkBounds(off, len, input.capacity());
+        updateByteBuffer(input, off, len);
+    }
+
+    /**
+     * Shortcut for {@link #updateBytes(ByteBuffer[], int, int) updateBytes(srcs, 0, srcs.length)}.
+     */
+    public void updateBytes(@NotNull ByteBuffer[] srcs) {
+        updateBytes(srcs, 0, srcs.length);
+    }
+
+    /**
+     * Feeds the remaining bytes (from position to limit) of each buffer of the given subsequence
+     * of buffers to this state, in order, like {@link
+     * java.nio.channels.GatheringByteChannel#write(ByteBuffer[], int, int)} would write them.
+     *
+     * <p>This method doesn't alter the state (mark, position, limit or order) of the given
+     * {@code ByteBuffer}s.
+     *
+     * @param srcs the buffers to read bytes from
+     * @param offset index of the first buffer in the subsequence of buffers
+     * @param length number of buffers in the subsequence
+     * @throws IndexOutOfBoundsException if {@code offset < 0} or {@code offset + length >
+     * srcs.length} or {@code length < 0}
+     */
+    public void updateBytes(@NotNull ByteBuffer[] srcs, int offset, int length) {
+        HashFunction.checkBounds(offset, length, srcs.length);
+        for (int i = offset; i < offset + length; i++) {
+            final ByteBuffer src = srcs[i];
+            updateByteBuffer(src, src.position(), src.remaining());
+        }
+    }
+
+    /**
+     * Feeds the UTF-8 encoding of the given {@code CharSequence} to this state, equivalently to
+     * {@code updateBytes(input.toString().getBytes(StandardCharsets.UTF_8))}, but without encoding
+     * it into an array. Runs of ASCII chars are fed in bulk, right from the sequence (or the
+     * internal array of a compact {@code String}). Unpaired surrogates are encoded as {@code '?'},
+     * like {@code String.getBytes()} does.
+     *
+     * @param input the char sequence to feed the UTF-8 encoding of
+     */
+    public void updateUtf8(@NotNull CharSequence input) {
+        updateUtf8(input, ByteArrayAccess.instance(), AsciiCharSequenceAccess.instance());
+    }
+
+    /**
+     * Feeds the UTF-8 encoding of the given {@code CharSequence} with ASCII upper case letters
+     * converted to lower case to this state, like {@link #updateUtf8(CharSequence)}. Non-ASCII
+     * chars are fed as is.
+     *
+     * @param input the char sequence to feed the case-folded UTF-8 encoding of
+     * @see HashFunction#hashUtf8IgnoreAsciiCase(CharSequence)
+     */
+    public void updateUtf8IgnoreAsciiCase(@NotNull CharSequence input) {
+        updateUtf8(input, HashFunction.LowerCase.BYTES, HashFunction.LowerCase.CHARS);
+    }
+
+    void updateUtf8(@NotNull CharSequence input,
+                    Access<byte[]> bytesAccess, Access<CharSequence> charsAccess) {
+        if (input instanceof String) {
+            final byte[] latin1 = Strings.latin1Bytes((String) input);
+            if (latin1 != null) {
+                updateUtf8Latin1(latin1, bytesAccess);
+                return;
+            }
+        }
+        final int len = input.length();
+        int i = 0;
+        while (i < len) {
+            final int asciiEnd = Strings.asciiEnd(input, i, len);
+            if (asciiEnd != i) {
+                update(input, charsAccess, i, asciiEnd - i);
+                i = asciiEnd;
+                if (i == len) {
+                    break;
+                }
+            }
+            final char c = input.charAt(i++);
+            if (c < 0x800) {
+                updateByte((byte) (0xC0 | (c >>> 6)));
+                updateByte((byte) (0x80 | (c & 0x3F)));
+            } else if (!Character.isSurrogate(c)) {
+                updateByte((byte) (0xE0 | (c >>> 12)));
+                updateByte((byte) (0x80 | ((c >>> 6) & 0x3F)));
+                updateByte((byte) (0x80 | (c & 0x3F)));
+            } else if (Character.isHighSurrogate(c) && i < len && Character.isLowSurrogate(input.charAt(i))) {
+                final int cp = Character.toCodePoint(c, input.charAt(i++));
+                updateByte((byte) (0xF0 | (cp >>> 18)));
+                updateByte((byte) (0x80 | ((cp >>> 12) & 0x3F)));
+                updateByte((byte) (0x80 | ((cp >>> 6) & 0x3F)));
+                updateByte((byte) (0x80 | (cp & 0x3F)));
+            } else {
+                updateByte((byte) '?');
+            }
+        }
+    }
+
+    private void updateUtf8Latin1(final byte[] latin1, final Access<byte[]> access) {
+        final int len = latin1.length;
+        int i = 0;
+        while (i < len) {
+            final int asciiEnd = Strings.asciiEnd(latin1, i, len);
+            if (asciiEnd != i) {
+                update(latin1, access, ByteArrayAccess.baseOffset() + i, asciiEnd - i);
+                i = asciiEnd;
+                if (i == len) {
+                    break;
+                }
+            }
+            final int c = latin1[i++] & 0xFF;
+            updateByte((byte) (0xC0 | (c >>> 6)));
+            updateByte((byte) (0x80 | (c & 0x3F)));
+        }
+    }
+
+    /**
+     * Feeds the fields of the given object to this state, without serializing the object: all
+     * non-static, non-transient fields of its class and superclasses (superclass fields first, in
+     * declared order), which should be of primitive types or {@code String}. Primitive values are
+     * fed like by {@link #updateLong(long)} and {@link #updateInt(int)}, i.e. in little-endian
+     * order; {@code boolean}s are fed as a single byte of 0 or 1, {@code float}s and {@code
+     * double}s as their raw bits. A {@code String} is fed as its {@code int} length in chars
+     * followed by its {@linkplain #updateUtf8(CharSequence) UTF-8 encoding}, or as {@code int}
+     * -1 if it's {@code null}.
+     *
+     * <p>The fields of a class are resolved once and cached; then fields are read by {@code
+     * Unsafe}, or by {@code MethodHandle}s for records, without reflection.
+     *
+     * @param input the object to feed the fields of
+     * @throws IllegalArgumentException if the object has a field of a type other than a
+     * primitive type or {@code String}, or is an array
+     * @see HashFunction#hashFields(Object)
+     */
+    public void updateFields(@NotNull Object input) {
+        FieldLayout.of(input.getClass()).update(input, this);
+    }
+
+    private void updateByteBuffer(@NotNull ByteBuffer input, int off, int len) {
+        if (input.hasArray()) {
+            update(input.array(), ByteArrayAccess.instance(), ByteArrayAccess.baseOffset(input) + off, len);
+        } else if (input.isDirect() && ByteArrayAccess.readsAddresses()) {
+            update(null, ByteArrayAccess.instance(), ByteArrayAccess.address(input) + off, len);
+        } else {
+            update(input, ByteBufferAccess.instance(input), off, len);
+        }
+    }
+
+    /**
+     * Stores the given value to the {@code dst} array in little-endian order.
+     */
+    static void putLong(final byte[] dst, final int dstOff, final long v) {
+        dst[dstOff] = (byte) v;
+        dst[dstOff + 1] = (byte) (v >>> 8);
+        dst[dstOff + 2] = (byte) (v >>> 16);
+        dst[dstOff + 3] = (byte) (v >>> 24);
+        dst[dstOff + 4] = (byte) (v >>> 32);
+        dst[dstOff + 5] = (byte) (v >>> 40);
+        dst[dstOff + 6] = (byte) (v >>> 48);
+        dst[dstOff + 7] = (byte) (v >>> 56);
+    }
+
+    /**
+     * Copies {@code len} bytes of the given {@code input} to the {@code dst} array, used by
+     * implementations for buffering the bytes of incomplete blocks.
+     */
+    static <T> void copy(final T input, final Access<T> access, long off,
+                         final byte[] dst, int dstOff, int len) {
+        for (; len >= 8; len -= 8, off += 8, dstOff += 8) {
+            putLong(dst, dstOff, i64(input, access, off));
+        }
+        for (; len > 0; len--, off++, dstOff++) {
+            dst[dstOff] = (byte) i8(input, access, off);
+        }
+    }
+}
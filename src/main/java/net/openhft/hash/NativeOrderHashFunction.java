@@ -0,0 +1,163 @@
+/*
+ * Copyright 2014 Higher Frequency Trading http://www.higherfrequencytrading.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.openhft.hash;
+
+import net.openhft.access.Access;
+import net.openhft.access.ByteArrayAccess;
+import net.openhft.access.ByteBufferAccess;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+
+import static java.nio.ByteOrder.BIG_ENDIAN;
+import static java.nio.ByteOrder.LITTLE_ENDIAN;
+
+/**
+ * The {@linkplain HashFunction#withNativeByteOrder() native-order} variant of a hash function: the
+ * byte sequences of arrays, off-heap memory and {@code ByteBuffer}s hashed at once are read by the
+ * accesses of the native byte order, instead of the little-endian ones.
+ *
+ * <p>Everything else is computed by the wrapped function: values, strings, objects, a prefix
+ * with an array, several buffers, files, and streaming states. A native-order read of a word
+ * depends on the position of the word in the kernel's reads, so byte sequences fed in arbitrary
+ * chunks couldn't be read the same way as the same sequence hashed at once; the wrapped function
+ * gives them hash codes equal on all platforms instead.
+ */
+final class NativeOrderHashFunction extends HashFunction {
+    private static final boolean LITTLE_ENDIAN_HOST = ByteOrder.nativeOrder() == LITTLE_ENDIAN;
+    private static final Access<byte[]> ARRAY = ByteArrayAccess.instance();
+    private static final Access<byte[]> ARRAY_NATIVE = ByteArrayAccess.nativeOrderInstance();
+    private static final Access<ByteBuffer> BUFFER_LE =
+            ByteBufferAccess.instance(ByteBuffer.allocate(0).order(LITTLE_ENDIAN));
+    private static final Access<ByteBuffer> BUFFER_BE =
+            ByteBufferAccess.instance(ByteBuffer.allocate(0).order(BIG_ENDIAN));
+
+    @NotNull
+    private final HashFunction function;
+
+    private NativeOrderHashFunction(@NotNull final HashFunction function) {
+        this.function = function;
+    }
+
+    /**
+     * Wraps the given function. Returning the wrapper typed as {@code HashFunction} from here,
+     * rather than from {@link HashFunction#withNativeByteOrder()}, keeps the verifier of {@code
+     * HashFunction} from loading this class, which is not used on little-endian platforms.
+     */
+    static HashFunction of(@NotNull final HashFunction function) {
+        return new NativeOrderHashFunction(function);
+    }
+
+    /**
+     * Maps the little-endian accesses, which {@code HashFunction} reads byte sequences by, to the
+     * accesses of the native byte order. On big-endian hosts, the buffer accesses are swapped:
+     * the access reading a little-endian buffer as is reads a big-endian buffer natively, and
+     * vice versa. Other accesses are returned as is.
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> Access<T> nativeOrder(final Access<T> access) {
+        if (LITTLE_ENDIAN_HOST)
+            return access;
+        if (access == ARRAY)
+            return (Access<T>) ARRAY_NATIVE;
+        if (access == BUFFER_LE)
+            return (Access<T>) BUFFER_BE;
+        if (access == BUFFER_BE)
+            return (Access<T>) BUFFER_LE;
+        return access;
+    }
+
+    @Override
+    protected <T> long hash(final T input, final Access<T> access, final long off, final long len) {
+        return function.hash(input, nativeOrder(access), off, len);
+    }
+
+    @Override
+    protected <T> void hashBatch(final T input, final Access<T> access, final long off,
+                                 final int keyLength, final int count, final long[] out) {
+        function.hashBatch(input, nativeOrder(access), off, keyLength, count, out);
+    }
+
+    @Override
+    protected <T> void hashBatch(final T input, final Access<T> access, final long base,
+                                 final int[] offsets, final int[] lengths, final long[] out) {
+        function.hashBatch(input, nativeOrder(access), base, offsets, lengths, out);
+    }
+
+    @Override
+    public long hash(final long a, final long b) {
+        return function.hash(a, b);
+    }
+
+    /**
+     * The array is hashed along with the prefix as by the wrapped function, i.e. read in
+     * little-endian order.
+     */
+    @Override
+    public long hash(final long prefix, @NotNull final byte[] input, final int off, final int len) {
+        return function.hash(prefix, input, off, len);
+    }
+
+    @Override
+    public long hash(final long a, final long b, @NotNull final CharSequence input) {
+        return function.hash(a, b, input);
+    }
+
+    @Override
+    public long hashUtf8(@NotNull final CharSequence input) {
+        return function.hashUtf8(input);
+    }
+
+    @Override
+    public long hashUtf8IgnoreAsciiCase(@NotNull final CharSequence input) {
+        return function.hashUtf8IgnoreAsciiCase(input);
+    }
+
+    @Override
+    public long hashFields(@NotNull final Object input) {
+        return function.hashFields(input);
+    }
+
+    @Override
+    public long hashBytes(@NotNull final ByteBuffer[] srcs, final int offset, final int length) {
+        return function.hashBytes(srcs, offset, length);
+    }
+
+    @Override
+    long hashFile(@NotNull final FileChannel channel, final long pos, final long len,
+                  final int window) throws IOException {
+        return function.hashFile(channel, pos, len, window);
+    }
+
+    @Override
+    public HashState newState() {
+        return function.newState();
+    }
+
+    @Override
+    public HashFunction forFixedLength(final int len) {
+        return of(function.forFixedLength(len));
+    }
+
+    @Override
+    public HashFunction withNativeByteOrder() {
+        return this;
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2014 Higher Frequency Trading http://www.higherfrequencytrading.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.openhft.hash;
+
+import net.openhft.access.Access;
+import net.openhft.access.ByteArrayAccess;
+
+/**
+ * Reads of the hash kernels, with the {@link ByteArrayAccess} of byte arrays (and, with {@code
+ * Unsafe}, of off-heap memory) and the buffers over them bound statically.
+ *
+ * <p>All hash functions read through the same {@code Access.getXxx()} call sites, so once an
+ * application hashes inputs through a few different {@code Access} strategies, the type profiles
+ * of these call sites become megamorphic, the reads are not inlined any more, and hashing of
+ * every input slows down several times. Here the reads of {@code ByteArrayAccess}, whichever
+ * {@linkplain ByteArrayAccess#strategy() strategy} is selected, are compiled as a separate path
+ * on a constant receiver, which doesn't depend on the profiles. The check of the access is
+ * loop-invariant, so in the kernel loops it is either hoisted or perfectly predicted.
+ *
+ * <p>On big-endian platforms, the {@linkplain ByteArrayAccess#nativeOrderInstance() native-order}
+ * access of {@link HashFunction#withNativeByteOrder()} is bound the same way.
+ */
+final class Reads {
+    private static final Access<byte[]> ARRAY = ByteArrayAccess.instance();
+    private static final Access<byte[]> NATIVE = ByteArrayAccess.nativeOrderInstance();
+    private static final boolean BIG_ENDIAN = NATIVE != ARRAY;
+
+    private Reads() {}
+
+    static <T> long i64(final T input, final Access<T> access, final long offset) {
+        return access == ARRAY ? ARRAY.i64((byte[]) input, offset)
+                : BIG_ENDIAN && access == NATIVE ? NATIVE.i64((byte[]) input, offset)
+                : access.i64(input, offset);
+    }
+
+    static <T> long u32(final T input, final Access<T> access, final long offset) {
+        return access == ARRAY ? ARRAY.u32((byte[]) input, offset)
+                : BIG_ENDIAN && access == NATIVE ? NATIVE.u32((byte[]) input, offset)
+                : access.u32(input, offset);
+    }
+
+    static <T> int i32(final T input, final Access<T> access, final long offset) {
+        return access == ARRAY ? ARRAY.i32((byte[]) input, offset)
+                : BIG_ENDIAN && access == NATIVE ? NATIVE.i32((byte[]) input, offset)
+                : access.i32(input, offset);
+    }
+
+    static <T> int u8(final T input, final Access<T> access, final long offset) {
+        return access == ARRAY ? ARRAY.u8((byte[]) input, offset)
+                : BIG_ENDIAN && access == NATIVE ? NATIVE.u8((byte[]) input, offset)
+                : access.u8(input, offset);
+    }
+
+    static <T> int i8(final T input, final Access<T> access, final long offset) {
+        return access == ARRAY ? ARRAY.i8((byte[]) input, offset)
+                : BIG_ENDIAN && access == NATIVE ? NATIVE.i8((byte[]) input, offset)
+                : access.i8(input, offset);
+    }
+}
@@ -17,13 +17,21 @@
 package net.openhft.hash;
 
 import net.openhft.access.Access;
+import net.openhft.access.AsciiCharSequenceAccess;
+import net.openhft.access.ByteArrayAccess;
+import net.openhft.internal.Strings;
+
+import static net.openhft.hash.Reads.i64;
+import static net.openhft.hash.Reads.u32;
+import static net.openhft.hash.Reads.u8;
 
 /**
  * Adapted version of xxHash implementation from https://github.com/Cyan4973/xxHash.
  * This implementation provides endian-independent hash values, but it's slower on big-endian platforms.
  */
 class XxHash extends HashFunction {
-    static final XxHash INSTANCE = new XxHash();
+    // typed as HashFunction, so that Hash.xx() doesn't load this class with Hash
+    static final HashFunction INSTANCE = new XxHash();
 
     // Primes if treated as unsigned
     private static final long P1 = -7046029288634856825L;
@@ -44,80 +52,143 @@ class XxHash extends HashFunction {
             long v4 = -P1;
 
             do {
-                v1 += access.i64(input, off) * P2;
-                v1 = Long.rotateLeft(v1, 31);
-                v1 *= P1;
-
-                v2 += access.i64(input, off + 8) * P2;
-                v2 = Long.rotateLeft(v2, 31);
-                v2 *= P1;
-
-                v3 += access.i64(input, off + 16) * P2;
-                v3 = Long.rotateLeft(v3, 31);
-                v3 *= P1;
-
-                v4 += access.i64(input, off + 24) * P2;
-                v4 = Long.rotateLeft(v4, 31);
-                v4 *= P1;
+                v1 = round(v1, i64(input, access, off));
+                v2 = round(v2, i64(input, access, off + 8));
+                v3 = round(v3, i64(input, access, off + 16));
+                v4 = round(v4, i64(input, access, off + 24));
 
                 off += 32;
                 remaining -= 32;
             } while (remaining >= 32);
 
-            hash = Long.rotateLeft(v1, 1)
-                + Long.rotateLeft(v2, 7)
-                + Long.rotateLeft(v3, 12)
-                + Long.rotateLeft(v4, 18);
-
-            v1 *= P2;
-            v1 = Long.rotateLeft(v1, 31);
-            v1 *= P1;
-            hash ^= v1;
-            hash = hash * P1 + P4;
-
-            v2 *= P2;
-            v2 = Long.rotateLeft(v2, 31);
-            v2 *= P1;
-            hash ^= v2;
-            hash = hash * P1 + P4;
-
-            v3 *= P2;
-            v3 = Long.rotateLeft(v3, 31);
-            v3 *= P1;
-            hash ^= v3;
-            hash = hash * P1 + P4;
-
-            v4 *= P2;
-            v4 = Long.rotateLeft(v4, 31);
-            v4 *= P1;
-            hash ^= v4;
-            hash = hash * P1 + P4;
+            hash = merge(v1, v2, v3, v4);
         } else {
             hash = P5;
         }
 
         hash += length;
 
+        return finish(hash, input, access, off, remaining);
+    }
+
+    @Override
+    public long hash(final long a, final long b) {
+        long hash = P5 + 16;
+        hash = finishLong(hash, a);
+        hash = finishLong(hash, b);
+        return finalize(hash);
+    }
+
+    @Override
+    public long hash(final long prefix, final byte[] input, final int off, final int len) {
+        checkBounds(off, len, input.length);
+        return hashPrefixed(prefix, 0, 8, input, ByteArrayAccess.instance(), ByteArrayAccess.baseOffset() + off, len);
+    }
+
+    @Override
+    public long hash(final long a, final long b, final CharSequence input) {
+        if (input instanceof String) {
+            final byte[] latin1 = Strings.latin1Bytes((String) input);
+            if (latin1 != null && Strings.asciiEnd(latin1, 0, latin1.length) == latin1.length) {
+                return hashPrefixed(a, b, 16, latin1, ByteArrayAccess.instance(), ByteArrayAccess.baseOffset(), latin1.length);
+            }
+        }
+        final int len = input.length();
+        if (Strings.asciiEnd(input, 0, len) == len) {
+            return hashPrefixed(a, b, 16, input, AsciiCharSequenceAccess.instance(), 0, len);
+        }
+        return super.hash(a, b, input);
+    }
+
+    @Override
+    public HashState newState() {
+        return State.create();
+    }
+
+    /**
+     * Hashes the {@code prefixLen} (8 or 16) bytes of {@code p1} and {@code p2}, followed by the
+     * given bytes. As the prefix occupies whole lanes, it's folded into the first stripe (or the
+     * tail) value by value, and the bytes are read right from the input, shifted by the prefix lanes.
+     */
+    private static <T> long hashPrefixed(final long p1, final long p2, final int prefixLen,
+                                         T input, Access<T> access, long off, long length) {
+        final long totalLen = prefixLen + length;
+        long hash;
+        if (totalLen >= 32) {
+            long v1 = round(P1 + P2, p1);
+            long v2;
+            if (prefixLen == 16) {
+                v2 = round(P2, p2);
+            } else {
+                v2 = round(P2, i64(input, access, off));
+                off += 8;
+            }
+            long v3 = round(0, i64(input, access, off));
+            long v4 = round(-P1, i64(input, access, off + 8));
+            off += 16;
+            long remaining = totalLen - 32;
+
+            while (remaining >= 32) {
+                v1 = round(v1, i64(input, access, off));
+                v2 = round(v2, i64(input, access, off + 8));
+                v3 = round(v3, i64(input, access, off + 16));
+                v4 = round(v4, i64(input, access, off + 24));
+
+                off += 32;
+                remaining -= 32;
+            }
+
+            hash = merge(v1, v2, v3, v4) + totalLen;
+            return finish(hash, input, access, off, remaining);
+        }
+        hash = finishLong(P5 + totalLen, p1);
+        if (prefixLen == 16) {
+            hash = finishLong(hash, p2);
+        }
+        return finish(hash, input, access, off, length);
+    }
+
+    private static long round(long acc, final long input) {
+        acc += input * P2;
+        acc = Long.rotateLeft(acc, 31);
+        return acc * P1;
+    }
+
+    private static long mergeRound(final long hash, final long v) {
+        return (hash ^ round(0, v)) * P1 + P4;
+    }
+
+    private static long merge(final long v1, final long v2, final long v3, final long v4) {
+        long hash = Long.rotateLeft(v1, 1)
+            + Long.rotateLeft(v2, 7)
+            + Long.rotateLeft(v3, 12)
+            + Long.rotateLeft(v4, 18);
+
+        hash = mergeRound(hash, v1);
+        hash = mergeRound(hash, v2);
+        hash = mergeRound(hash, v3);
+        return mergeRound(hash, v4);
+    }
+
+    /**
+     * Consumes the last {@code remaining < 32} bytes and finalizes the hash.
+     */
+    private static <T> long finish(long hash, T input, Access<T> access, long off, long remaining) {
         while (remaining >= 8) {
-            long k1 = access.i64(input, off);
-            k1 *= P2;
-            k1 = Long.rotateLeft(k1, 31);
-            k1 *= P1;
-            hash ^= k1;
-            hash = Long.rotateLeft(hash, 27) * P1 + P4;
+            hash = finishLong(hash, i64(input, access, off));
             off += 8;
             remaining -= 8;
         }
 
         if (remaining >= 4) {
-            hash ^= access.u32(input, off) * P1;
+            hash ^= u32(input, access, off) * P1;
             hash = Long.rotateLeft(hash, 23) * P2 + P3;
             off += 4;
             remaining -= 4;
         }
 
         while (remaining != 0) {
-            hash ^= access.u8(input, off) * P5;
+            hash ^= u8(input, access, off) * P5;
             hash = Long.rotateLeft(hash, 11) * P1;
             --remaining;
             ++off;
@@ -126,6 +197,10 @@ class XxHash extends HashFunction {
         return finalize(hash);
     }
 
+    private static long finishLong(final long hash, final long input) {
+        return Long.rotateLeft(hash ^ round(0, input), 27) * P1 + P4;
+    }
+
     private static long finalize(long hash) {
         hash ^= hash >>> 33;
         hash *= P2;
@@ -134,4 +209,99 @@ class XxHash extends HashFunction {
         hash ^= hash >>> 32;
         return hash;
     }
+
+    /**
+     * Streaming xxHash state, buffers up to 32 bytes of an incomplete stripe.
+     */
+    private static final class State extends HashState {
+        private static final Access<byte[]> arrayLE = ByteArrayAccess.instance();
+        private static final long baseOffset = ByteArrayAccess.baseOffset();
+
+        private final byte[] buffer = new byte[32];
+        private int bufferedSize;
+        private long totalLen;
+        private long v1, v2, v3, v4;
+
+        State() {
+            reset();
+        }
+
+        /**
+         * Returns a new state typed as {@code HashState}, so that the state is not loaded with
+         * {@code XxHash}.
+         */
+        static HashState create() {
+            return new State();
+        }
+
+        @Override
+        public void reset() {
+            v1 = P1 + P2;
+            v2 = P2;
+            v3 = 0;
+            v4 = -P1;
+            totalLen = 0;
+            bufferedSize = 0;
+        }
+
+        @Override
+        public void updateByte(final byte input) {
+            buffer[bufferedSize++] = input;
+            totalLen++;
+            if (bufferedSize == 32) {
+                consume(buffer, arrayLE, baseOffset);
+                bufferedSize = 0;
+            }
+        }
+
+        @Override
+        public void updateLong(final long input) {
+            if (bufferedSize + 8 >= 32) {
+                super.updateLong(input);
+                return;
+            }
+            putLong(buffer, bufferedSize, input);
+            bufferedSize += 8;
+            totalLen += 8;
+        }
+
+        @Override
+        protected <T> void update(final T input, final Access<T> access, long off, long len) {
+            totalLen += len;
+            if (bufferedSize + len < 32) {
+                copy(input, access, off, buffer, bufferedSize, (int) len);
+                bufferedSize += (int) len;
+                return;
+            }
+            if (bufferedSize != 0) {
+                final int fill = 32 - bufferedSize;
+                copy(input, access, off, buffer, bufferedSize, fill);
+                consume(buffer, arrayLE, baseOffset);
+                off += fill;
+                len -= fill;
+                bufferedSize = 0;
+            }
+            while (len >= 32) {
+                consume(input, access, off);
+                off += 32;
+                len -= 32;
+            }
+            copy(input, access, off, buffer, 0, (int) len);
+            bufferedSize = (int) len;
+        }
+
+        private <T> void consume(final T input, final Access<T> access, final long off) {
+            v1 = round(v1, i64(input, access, off));
+            v2 = round(v2, i64(input, access, off + 8));
+            v3 = round(v3, i64(input, access, off + 16));
+            v4 = round(v4, i64(input, access, off + 24));
+        }
+
+        @Override
+        public long hash() {
+            long hash = totalLen >= 32 ? merge(v1, v2, v3, v4) : P5;
+            hash += totalLen;
+            return finish(hash, buffer, arrayLE, baseOffset, bufferedSize);
+        }
+    }
 }
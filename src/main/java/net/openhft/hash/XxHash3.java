@@ -17,9 +17,16 @@
 package net.openhft.hash;
 
 import net.openhft.access.Access;
-import net.openhft.access.UnsafeAccess;
+import net.openhft.access.AsciiCharSequenceAccess;
+import net.openhft.access.ByteArrayAccess;
 import net.openhft.internal.Primitives;
+import net.openhft.internal.Strings;
 
+import static net.openhft.hash.Reads.i32;
+import static net.openhft.hash.Reads.i64;
+import static net.openhft.hash.Reads.i8;
+import static net.openhft.hash.Reads.u32;
+import static net.openhft.hash.Reads.u8;
 import static net.openhft.internal.Maths.unsignedLongMulXorFold;
 
 /**
@@ -27,14 +34,17 @@ import static net.openhft.internal.Maths.unsignedLongMulXorFold;
  * This implementation provides endian-independent hash values, but it's slower on big-endian platforms.
  */
 class XxHash3 extends HashFunction {
-    static final XxHash3 INSTANCE = new XxHash3();
-
-    private static class Secret {
-        private static final Access<byte[]> unsafeLE = UnsafeAccess.instance();
-        private static final long baseOffset = UnsafeAccess.baseOffset();
+    // typed as HashFunction, so that Hash.xx3() doesn't load this class with Hash
+    static final HashFunction INSTANCE = new XxHash3();
 
+    /**
+     * The secret and its precomputed words. They are read from the array by plain Java code,
+     * rather than by {@link ByteArrayAccess}, so this class doesn't depend on the memory layout of
+     * the JVM, and could be initialized at native image build time.
+     */
+    static class Secret {
         /*! Pseudorandom secret taken directly from FARSH. */
-        private static final byte[] secret = {
+        static final byte[] secret = {
                 (byte)0xb8, (byte)0xfe, (byte)0x6c, (byte)0x39, (byte)0x23, (byte)0xa4, (byte)0x4b, (byte)0xbe, (byte)0x7c, (byte)0x01, (byte)0x81, (byte)0x2c, (byte)0xf7, (byte)0x21, (byte)0xad, (byte)0x1c,
                 (byte)0xde, (byte)0xd4, (byte)0x6d, (byte)0xe9, (byte)0x83, (byte)0x90, (byte)0x97, (byte)0xdb, (byte)0x72, (byte)0x40, (byte)0xa4, (byte)0xa4, (byte)0xb7, (byte)0xb3, (byte)0x67, (byte)0x1f,
                 (byte)0xcb, (byte)0x79, (byte)0xe6, (byte)0x4e, (byte)0xcc, (byte)0xc0, (byte)0xe5, (byte)0x78, (byte)0x82, (byte)0x5a, (byte)0xd0, (byte)0x7d, (byte)0xcc, (byte)0xff, (byte)0x72, (byte)0x21,
@@ -49,8 +59,76 @@ class XxHash3 extends HashFunction {
                 (byte)0x45, (byte)0xcb, (byte)0x3a, (byte)0x8f, (byte)0x95, (byte)0x16, (byte)0x04, (byte)0x28, (byte)0xaf, (byte)0xd7, (byte)0xfb, (byte)0xca, (byte)0xbb, (byte)0x4b, (byte)0x40, (byte)0x7e,
         };
 
-        static long i64(final long offset) { return unsafeLE.i64(secret, baseOffset + offset); }
-        static  int i32(final long offset) { return unsafeLE.i32(secret, baseOffset + offset); }
+        static long i64(final long offset) { return Primitives.unsignedInt(i32(offset)) | (long) i32(offset + 4) << 32; }
+        static  int i32(final long offset) {
+            final int i = (int) offset;
+            return (secret[i] & 0xFF) | (secret[i + 1] & 0xFF) << 8 | (secret[i + 2] & 0xFF) << 16 | secret[i + 3] << 24;
+        }
+
+        /*
+         * Precomputed secret words of the unseeded paths. The words used at fixed points of a
+         * path are static final fields, i.e. constants to the JIT, which are folded with the other
+         * constants of the path. The words used in loops are laid out in long[]s indexed by the
+         * stripe or the round, read without Unsafe loads competing with the input loads.
+         */
+
+        static final long BITFLIP_0 = i64(56) ^ i64(64);
+        static final long BITFLIP_1TO3 = Primitives.unsignedInt(i32(0) ^ i32(4));
+        static final long BITFLIP_4TO8 = i64(8) ^ i64(16);
+        static final long BITFLIP_9TO16_LO = i64(24) ^ i64(32);
+        static final long BITFLIP_9TO16_HI = i64(40) ^ i64(48);
+
+        /**
+         * The aligned words, {@code STRIPE[k] == i64(8 * k)}: stripe {@code s} of a block is keyed
+         * by {@code STRIPE[s .. s + 7]}, and the scrambling by {@code STRIPE[16 .. 23]}.
+         */
+        static final long[] STRIPE = words(0, 24);
+
+        /**
+         * The words keying the rounds of the 17-128 path and the first 8 rounds of the 129-240
+         * path, {@code ROUND_k == STRIPE[k]}.
+         */
+        static final long ROUND_0 = STRIPE[0];
+        static final long ROUND_1 = STRIPE[1];
+        static final long ROUND_2 = STRIPE[2];
+        static final long ROUND_3 = STRIPE[3];
+        static final long ROUND_4 = STRIPE[4];
+        static final long ROUND_5 = STRIPE[5];
+        static final long ROUND_6 = STRIPE[6];
+        static final long ROUND_7 = STRIPE[7];
+        static final long ROUND_8 = STRIPE[8];
+        static final long ROUND_9 = STRIPE[9];
+        static final long ROUND_10 = STRIPE[10];
+        static final long ROUND_11 = STRIPE[11];
+        static final long ROUND_12 = STRIPE[12];
+        static final long ROUND_13 = STRIPE[13];
+        static final long ROUND_14 = STRIPE[14];
+        static final long ROUND_15 = STRIPE[15];
+
+        /**
+         * The words keying the rounds after the 8th of the 129-240 path, and the last round.
+         */
+        static final long[] MID = words(3, 14);
+        static final long MID_LAST_LO = i64(136 - 17);
+        static final long MID_LAST_HI = i64(136 - 17 + 8);
+
+        /**
+         * The words keying the last stripe of the long input path.
+         */
+        static final long[] LAST_STRIPE = words(192 - 64 - 7, 8);
+
+        /**
+         * The words keying the merging of the accumulators.
+         */
+        static final long[] MERGE = words(11, 8);
+
+        private static long[] words(final long offset, final int count) {
+            final long[] words = new long[count];
+            for (int i = 0; i < count; i++) {
+                words[i] = i64(offset + 8L * i);
+            }
+            return words;
+        }
     }
 
     // Primes
@@ -73,33 +151,24 @@ class XxHash3 extends HashFunction {
         if (length <= 16) {
             // len_0to16_64b
             if (length > 8) {
-                // len_9to16_64b
-                final long bitflip1 = Secret.i64(24) ^ Secret.i64(32);
-                final long bitflip2 = Secret.i64(40) ^ Secret.i64(48);
-                final long input_lo = access.i64(input, off) ^ bitflip1;
-                final long input_hi = access.i64(input, off + length - 8) ^ bitflip2;
-                final long acc = length + Long.reverseBytes(input_lo) + input_hi + unsignedLongMulXorFold(input_lo, input_hi);
-                return avalanche(acc);
+                return len9to16(i64(input, access, off), i64(input, access, off + length - 8), length);
             }
             if (length >= 4) {
                 // len_4to8_64b
-                long s = Long.reverseBytes(0L);
-                final long input1 = access.i32(input, off); // high int will be shifted
-                final long input2 = access.u32(input, off + length - 4);
-                final long bitflip = (Secret.i64(8) ^ Secret.i64(16)) - s;
-                final long keyed = (input2 + (input1 << 32)) ^ bitflip;
+                final long input1 = i32(input, access, off); // high int will be shifted
+                final long input2 = u32(input, access, off + length - 4);
+                final long keyed = (input2 + (input1 << 32)) ^ Secret.BITFLIP_4TO8;
                 return rrmxmx(keyed, length);
             }
             if (length != 0) {
                 // len_1to3_64b
-                final int c1 = access.u8(input, off);
-                final int c2 = access.i8(input, off + (length >> 1)); // high 3 bytes will be shifted
-                final int c3 = access.u8(input, off + length - 1);
+                final int c1 = u8(input, access, off);
+                final int c2 = i8(input, access, off + (length >> 1)); // high 3 bytes will be shifted
+                final int c3 = u8(input, access, off + length - 1);
                 final long combined = Primitives.unsignedInt((c1 << 16) | (c2  << 24) | c3 | ((int)length << 8));
-                final long bitflip = Primitives.unsignedInt(Secret.i32(0) ^ Secret.i32(4));
-                return XXH64_avalanche(combined ^ bitflip);
+                return XXH64_avalanche(combined ^ Secret.BITFLIP_1TO3);
             }
-            return XXH64_avalanche(Secret.i64(56) ^ Secret.i64(64));
+            return XXH64_avalanche(Secret.BITFLIP_0);
         }
         if (length <= 128) {
             // len_17to128_64b
@@ -108,17 +177,17 @@ class XxHash3 extends HashFunction {
             if (length > 32) {
                 if (length > 64) {
                     if (length > 96) {
-                        acc += mix16B(input, access, off + 48, 96);
-                        acc += mix16B(input, access, off + length - 64, 112);
+                        acc += mix16B(input, access, off + 48, Secret.ROUND_12, Secret.ROUND_13);
+                        acc += mix16B(input, access, off + length - 64, Secret.ROUND_14, Secret.ROUND_15);
                     }
-                    acc += mix16B(input, access, off + 32, 64);
-                    acc += mix16B(input, access, off + length - 48, 80);
+                    acc += mix16B(input, access, off + 32, Secret.ROUND_8, Secret.ROUND_9);
+                    acc += mix16B(input, access, off + length - 48, Secret.ROUND_10, Secret.ROUND_11);
                 }
-                acc += mix16B(input, access, off + 16, 32);
-                acc += mix16B(input, access, off + length - 32, 48);
+                acc += mix16B(input, access, off + 16, Secret.ROUND_4, Secret.ROUND_5);
+                acc += mix16B(input, access, off + length - 32, Secret.ROUND_6, Secret.ROUND_7);
             }
-            acc += mix16B(input, access, off, 0);
-            acc += mix16B(input, access, off + length - 16, 16);
+            acc += mix16B(input, access, off, Secret.ROUND_0, Secret.ROUND_1);
+            acc += mix16B(input, access, off + length - 16, Secret.ROUND_2, Secret.ROUND_3);
 
             return avalanche(acc);
         }
@@ -126,72 +195,85 @@ class XxHash3 extends HashFunction {
             // len_129to240_64b
             long acc = length * XXH_PRIME64_1;
             final int nbRounds = (int)length / 16;
-            int i = 0;
-            for (; i < 8; ++i) {
-                acc += mix16B(input, access, off + 16L*i, 16L*i);
-            }
+            acc += mix16B(input, access, off, Secret.ROUND_0, Secret.ROUND_1);
+            acc += mix16B(input, access, off + 16, Secret.ROUND_2, Secret.ROUND_3);
+            acc += mix16B(input, access, off + 16*2, Secret.ROUND_4, Secret.ROUND_5);
+            acc += mix16B(input, access, off + 16*3, Secret.ROUND_6, Secret.ROUND_7);
+            acc += mix16B(input, access, off + 16*4, Secret.ROUND_8, Secret.ROUND_9);
+            acc += mix16B(input, access, off + 16*5, Secret.ROUND_10, Secret.ROUND_11);
+            acc += mix16B(input, access, off + 16*6, Secret.ROUND_12, Secret.ROUND_13);
+            acc += mix16B(input, access, off + 16*7, Secret.ROUND_14, Secret.ROUND_15);
             acc = avalanche(acc);
 
-            for (; i < nbRounds; ++i) {
-                acc += mix16B(input, access, off + 16L*i, 16L*(i-8) + 3);
+            final long[] mid = Secret.MID;
+            for (int i = 8; i < nbRounds; ++i) {
+                acc += mix16B(input, access, off + 16L*i, mid[2*(i-8)], mid[2*(i-8) + 1]);
             }
 
             /* last bytes */
-            acc += mix16B(input, access, off + length - 16, 136 - 17);
+            acc += mix16B(input, access, off + length - 16, Secret.MID_LAST_LO, Secret.MID_LAST_HI);
             return avalanche(acc);
         }
 
         // hashLong_64b_internal
-        long acc_0 = XXH_PRIME32_3;
-        long acc_1 = XXH_PRIME64_1;
-        long acc_2 = XXH_PRIME64_2;
-        long acc_3 = XXH_PRIME64_3;
-        long acc_4 = XXH_PRIME64_4;
-        long acc_5 = XXH_PRIME32_2;
-        long acc_6 = XXH_PRIME64_5;
-        long acc_7 = XXH_PRIME32_1;
+        return hashLong(input, access, off, length, 0,
+                XXH_PRIME32_3, XXH_PRIME64_1, XXH_PRIME64_2, XXH_PRIME64_3,
+                XXH_PRIME64_4, XXH_PRIME32_2, XXH_PRIME64_5, XXH_PRIME32_1);
+    }
 
+    /**
+     * The {@code hashLong_64b_internal} loop over {@code length > 240} bytes, from the given
+     * accumulators, which already consumed the stripes of the first block before {@code
+     * firstStripe}.
+     */
+    private static <T> long hashLong(final T input, final Access<T> access, final long off,
+                                     final long length, final int firstStripe,
+                                     long acc_0, long acc_1, long acc_2, long acc_3,
+                                     long acc_4, long acc_5, long acc_6, long acc_7) {
         // hashLong_internal_loop
+        // A Vector API version of this loop isn't faster on JDK 17-21: C2 compiles the 32x32->64
+        // bit lane multiply as a full 64-bit multiply, which cancels the gain of the wider lanes.
+        final long[] sec = Secret.STRIPE;
         final long nb_blocks = (length - 1) / block_len;
+        int firstStripeOfBlock = firstStripe;
         for (long n = 0; n < nb_blocks; n++) {
             // accumulate
             final long offBlock = off + n * block_len;
-            for (long s = 0; s < nbStripesPerBlock; s++ ) {
+            for (int s = firstStripeOfBlock; s < (int) nbStripesPerBlock; s++ ) {
                 // accumulate_512
-                final long offStripe = offBlock + s * 64;
-                final long offSec = s * 8;
+                final long offStripe = offBlock + s * 64L;
                 {
-                    final long data_val_0 = access.i64(input, offStripe);
-                    final long data_val_1 = access.i64(input, offStripe + 8);
-                    final long data_key_0 = data_val_0 ^ Secret.i64(offSec);
-                    final long data_key_1 = data_val_1 ^ Secret.i64(offSec + 8);
+                    final long data_val_0 = i64(input, access, offStripe);
+                    final long data_val_1 = i64(input, access, offStripe + 8);
+                    final long data_key_0 = data_val_0 ^ sec[s];
+                    final long data_key_1 = data_val_1 ^ sec[s + 1];
                     /* swap adjacent lanes */
                     acc_0 += data_val_1 + (0xFFFFFFFFL & data_key_0) * (data_key_0 >>> 32);
                     acc_1 += data_val_0 + (0xFFFFFFFFL & data_key_1) * (data_key_1 >>> 32);
                 }
                 {
-                    final long data_val_0 = access.i64(input, offStripe + 8*2);
-                    final long data_val_1 = access.i64(input, offStripe + 8*3);
-                    final long data_key_0 = data_val_0 ^ Secret.i64(offSec + 8*2);
-                    final long data_key_1 = data_val_1 ^ Secret.i64(offSec + 8*3);
+                    final long data_val_0 = i64(input, access, offStripe + 8*2);
+                    final long data_val_1 = i64(input, access, offStripe + 8*3);
+                    final long data_key_0 = data_val_0 ^ sec[s + 2];
+                    final long data_key_1 = data_val_1 ^ sec[s + 3];
                     /* swap adjacent lanes */
                     acc_2 += data_val_1 + (0xFFFFFFFFL & data_key_0) * (data_key_0 >>> 32);
                     acc_3 += data_val_0 + (0xFFFFFFFFL & data_key_1) * (data_key_1 >>> 32);
                 }
                 {
-                    final long data_val_0 = access.i64(input, offStripe + 8*4);
-                    final long data_val_1 = access.i64(input, offStripe + 8*5);
-                    final long data_key_0 = data_val_0 ^ Secret.i64(offSec + 8*4);
-                    final long data_key_1 = data_val_1 ^ Secret.i64(offSec + 8*5);
+                    final long data_val_0 = i64(input, access, offStripe + 8*4);
+                    final long data_val_1 = i64(input, access, offStripe + 8*5);
+                    final long data_key_0 = data_val_0 ^ sec[s + 4];
+                    final long data_key_1 = data_val_1 ^ sec[s + 5];
                     /* swap adjacent lanes */
                     acc_4 += data_val_1 + (0xFFFFFFFFL & data_key_0) * (data_key_0 >>> 32);
                     acc_5 += data_val_0 + (0xFFFFFFFFL & data_key_1) * (data_key_1 >>> 32);
                 }
                 {
-                    final long data_val_0 = access.i64(input, offStripe + 8*6);
-                    final long data_val_1 = access.i64(input, offStripe + 8*7);
-                    final long data_key_0 = data_val_0 ^ Secret.i64(offSec + 8*6);
-                    final long data_key_1 = data_val_1 ^ Secret.i64(offSec + 8*7);
+                    final long data_val_0 = i64(input, access, offStripe + 8*6);
+                    final long data_val_1 = i64(input, access, offStripe + 8*7);
+                    final long data_key_0 = data_val_0 ^ sec[s + 6];
+                    final long data_key_1 = data_val_1 ^ sec[s + 7];
                     /* swap adjacent lanes */
                     acc_6 += data_val_1 + (0xFFFFFFFFL & data_key_0) * (data_key_0 >>> 32);
                     acc_7 += data_val_0 + (0xFFFFFFFFL & data_key_1) * (data_key_1 >>> 32);
@@ -199,56 +281,55 @@ class XxHash3 extends HashFunction {
             }
 
             // scrambleAcc_scalar
-            final long offSec = 192 - 64;
-            acc_0 = (acc_0 ^ (acc_0 >>> 47) ^ Secret.i64(offSec)) * XXH_PRIME32_1;
-            acc_1 = (acc_1 ^ (acc_1 >>> 47) ^ Secret.i64(offSec + 8)) * XXH_PRIME32_1;
-            acc_2 = (acc_2 ^ (acc_2 >>> 47) ^ Secret.i64(offSec + 8*2)) * XXH_PRIME32_1;
-            acc_3 = (acc_3 ^ (acc_3 >>> 47) ^ Secret.i64(offSec + 8*3)) * XXH_PRIME32_1;
-            acc_4 = (acc_4 ^ (acc_4 >>> 47) ^ Secret.i64(offSec + 8*4)) * XXH_PRIME32_1;
-            acc_5 = (acc_5 ^ (acc_5 >>> 47) ^ Secret.i64(offSec + 8*5)) * XXH_PRIME32_1;
-            acc_6 = (acc_6 ^ (acc_6 >>> 47) ^ Secret.i64(offSec + 8*6)) * XXH_PRIME32_1;
-            acc_7 = (acc_7 ^ (acc_7 >>> 47) ^ Secret.i64(offSec + 8*7)) * XXH_PRIME32_1;
+            acc_0 = (acc_0 ^ (acc_0 >>> 47) ^ sec[16]) * XXH_PRIME32_1;
+            acc_1 = (acc_1 ^ (acc_1 >>> 47) ^ sec[16 + 1]) * XXH_PRIME32_1;
+            acc_2 = (acc_2 ^ (acc_2 >>> 47) ^ sec[16 + 2]) * XXH_PRIME32_1;
+            acc_3 = (acc_3 ^ (acc_3 >>> 47) ^ sec[16 + 3]) * XXH_PRIME32_1;
+            acc_4 = (acc_4 ^ (acc_4 >>> 47) ^ sec[16 + 4]) * XXH_PRIME32_1;
+            acc_5 = (acc_5 ^ (acc_5 >>> 47) ^ sec[16 + 5]) * XXH_PRIME32_1;
+            acc_6 = (acc_6 ^ (acc_6 >>> 47) ^ sec[16 + 6]) * XXH_PRIME32_1;
+            acc_7 = (acc_7 ^ (acc_7 >>> 47) ^ sec[16 + 7]) * XXH_PRIME32_1;
+            firstStripeOfBlock = 0;
         }
 
         /* last partial block */
-        final long nbStripes = ((length - 1) - (block_len * nb_blocks)) / 64;
+        final int nbStripes = (int) (((length - 1) - (block_len * nb_blocks)) / 64);
         final long offBlock = off + block_len * nb_blocks;
-        for (long s = 0; s < nbStripes; s++) {
+        for (int s = firstStripeOfBlock; s < nbStripes; s++) {
             // accumulate_512
-            final long offStripe = offBlock + s * 64;
-            final long offSec = s * 8;
+            final long offStripe = offBlock + s * 64L;
             {
-                final long data_val_0 = access.i64(input, offStripe);
-                final long data_val_1 = access.i64(input, offStripe + 8);
-                final long data_key_0 = data_val_0 ^ Secret.i64(offSec);
-                final long data_key_1 = data_val_1 ^ Secret.i64(offSec + 8);
+                final long data_val_0 = i64(input, access, offStripe);
+                final long data_val_1 = i64(input, access, offStripe + 8);
+                final long data_key_0 = data_val_0 ^ sec[s];
+                final long data_key_1 = data_val_1 ^ sec[s + 1];
                 /* swap adjacent lanes */
                 acc_0 += data_val_1 + (0xFFFFFFFFL & data_key_0) * (data_key_0 >>> 32);
                 acc_1 += data_val_0 + (0xFFFFFFFFL & data_key_1) * (data_key_1 >>> 32);
             }
             {
-                final long data_val_0 = access.i64(input, offStripe + 8*2);
-                final long data_val_1 = access.i64(input, offStripe + 8*3);
-                final long data_key_0 = data_val_0 ^ Secret.i64(offSec + 8*2);
-                final long data_key_1 = data_val_1 ^ Secret.i64(offSec + 8*3);
+                final long data_val_0 = i64(input, access, offStripe + 8*2);
+                final long data_val_1 = i64(input, access, offStripe + 8*3);
+                final long data_key_0 = data_val_0 ^ sec[s + 2];
+                final long data_key_1 = data_val_1 ^ sec[s + 3];
                 /* swap adjacent lanes */
                 acc_2 += data_val_1 + (0xFFFFFFFFL & data_key_0) * (data_key_0 >>> 32);
                 acc_3 += data_val_0 + (0xFFFFFFFFL & data_key_1) * (data_key_1 >>> 32);
             }
             {
-                final long data_val_0 = access.i64(input, offStripe + 8*4);
-                final long data_val_1 = access.i64(input, offStripe + 8*5);
-                final long data_key_0 = data_val_0 ^ Secret.i64(offSec + 8*4);
-                final long data_key_1 = data_val_1 ^ Secret.i64(offSec + 8*5);
+                final long data_val_0 = i64(input, access, offStripe + 8*4);
+                final long data_val_1 = i64(input, access, offStripe + 8*5);
+                final long data_key_0 = data_val_0 ^ sec[s + 4];
+                final long data_key_1 = data_val_1 ^ sec[s + 5];
                 /* swap adjacent lanes */
                 acc_4 += data_val_1 + (0xFFFFFFFFL & data_key_0) * (data_key_0 >>> 32);
                 acc_5 += data_val_0 + (0xFFFFFFFFL & data_key_1) * (data_key_1 >>> 32);
             }
             {
-                final long data_val_0 = access.i64(input, offStripe + 8*6);
-                final long data_val_1 = access.i64(input, offStripe + 8*7);
-                final long data_key_0 = data_val_0 ^ Secret.i64(offSec + 8*6);
-                final long data_key_1 = data_val_1 ^ Secret.i64(offSec + 8*7);
+                final long data_val_0 = i64(input, access, offStripe + 8*6);
+                final long data_val_1 = i64(input, access, offStripe + 8*7);
+                final long data_key_0 = data_val_0 ^ sec[s + 6];
+                final long data_key_1 = data_val_1 ^ sec[s + 7];
                 /* swap adjacent lanes */
                 acc_6 += data_val_1 + (0xFFFFFFFFL & data_key_0) * (data_key_0 >>> 32);
                 acc_7 += data_val_0 + (0xFFFFFFFFL & data_key_1) * (data_key_1 >>> 32);
@@ -258,52 +339,343 @@ class XxHash3 extends HashFunction {
         /* last stripe */
         // accumulate_512
         final long offStripe = off + length - 64;
-        final long offSec = 192 - 64 - 7;
+        final long[] last = Secret.LAST_STRIPE;
         {
-            final long data_val_0 = access.i64(input, offStripe);
-            final long data_val_1 = access.i64(input, offStripe + 8);
-            final long data_key_0 = data_val_0 ^ Secret.i64(offSec);
-            final long data_key_1 = data_val_1 ^ Secret.i64(offSec + 8);
+            final long data_val_0 = i64(input, access, offStripe);
+            final long data_val_1 = i64(input, access, offStripe + 8);
+            final long data_key_0 = data_val_0 ^ last[0];
+            final long data_key_1 = data_val_1 ^ last[1];
             /* swap adjacent lanes */
             acc_0 += data_val_1 + (0xFFFFFFFFL & data_key_0) * (data_key_0 >>> 32);
             acc_1 += data_val_0 + (0xFFFFFFFFL & data_key_1) * (data_key_1 >>> 32);
         }
         {
-            final long data_val_0 = access.i64(input, offStripe + 8*2);
-            final long data_val_1 = access.i64(input, offStripe + 8*3);
-            final long data_key_0 = data_val_0 ^ Secret.i64(offSec + 8*2);
-            final long data_key_1 = data_val_1 ^ Secret.i64(offSec + 8*3);
+            final long data_val_0 = i64(input, access, offStripe + 8*2);
+            final long data_val_1 = i64(input, access, offStripe + 8*3);
+            final long data_key_0 = data_val_0 ^ last[2];
+            final long data_key_1 = data_val_1 ^ last[3];
             /* swap adjacent lanes */
             acc_2 += data_val_1 + (0xFFFFFFFFL & data_key_0) * (data_key_0 >>> 32);
             acc_3 += data_val_0 + (0xFFFFFFFFL & data_key_1) * (data_key_1 >>> 32);
         }
         {
-            final long data_val_0 = access.i64(input, offStripe + 8*4);
-            final long data_val_1 = access.i64(input, offStripe + 8*5);
-            final long data_key_0 = data_val_0 ^ Secret.i64(offSec + 8*4);
-            final long data_key_1 = data_val_1 ^ Secret.i64(offSec + 8*5);
+            final long data_val_0 = i64(input, access, offStripe + 8*4);
+            final long data_val_1 = i64(input, access, offStripe + 8*5);
+            final long data_key_0 = data_val_0 ^ last[4];
+            final long data_key_1 = data_val_1 ^ last[5];
             /* swap adjacent lanes */
             acc_4 += data_val_1 + (0xFFFFFFFFL & data_key_0) * (data_key_0 >>> 32);
             acc_5 += data_val_0 + (0xFFFFFFFFL & data_key_1) * (data_key_1 >>> 32);
         }
         {
-            final long data_val_0 = access.i64(input, offStripe + 8*6);
-            final long data_val_1 = access.i64(input, offStripe + 8*7);
-            final long data_key_0 = data_val_0 ^ Secret.i64(offSec + 8*6);
-            final long data_key_1 = data_val_1 ^ Secret.i64(offSec + 8*7);
+            final long data_val_0 = i64(input, access, offStripe + 8*6);
+            final long data_val_1 = i64(input, access, offStripe + 8*7);
+            final long data_key_0 = data_val_0 ^ last[6];
+            final long data_key_1 = data_val_1 ^ last[7];
             /* swap adjacent lanes */
             acc_6 += data_val_1 + (0xFFFFFFFFL & data_key_0) * (data_key_0 >>> 32);
             acc_7 += data_val_0 + (0xFFFFFFFFL & data_key_1) * (data_key_1 >>> 32);
         }
 
-        // mergeAccs
-        final long result64 = length * XXH_PRIME64_1
-                + mix2Accs(acc_0, acc_1, 11)
-                + mix2Accs(acc_2, acc_3, 11 + 16)
-                + mix2Accs(acc_4, acc_5, 11 + 16 * 2)
-                + mix2Accs(acc_6, acc_7, 11 + 16 * 3);
+        return mergeAccs(length, acc_0, acc_1, acc_2, acc_3, acc_4, acc_5, acc_6, acc_7);
+    }
 
-        return avalanche(result64);
+    /**
+     * Hashes the 16 bytes of the two values right by the {@code len_9to16_64b} path.
+     */
+    @Override
+    public long hash(final long a, final long b) {
+        return len9to16(a, b, 16);
+    }
+
+    @Override
+    public long hash(final long prefix, final byte[] input, final int off, final int len) {
+        checkBounds(off, len, input.length);
+        return hashPrefixed(prefix, 0, 8, input, ByteArrayAccess.instance(), ByteArrayAccess.baseOffset() + off, len);
+    }
+
+    @Override
+    public long hash(final long a, final long b, final CharSequence input) {
+        if (input instanceof String) {
+            final byte[] latin1 = Strings.latin1Bytes((String) input);
+            if (latin1 != null && Strings.asciiEnd(latin1, 0, latin1.length) == latin1.length) {
+                return hashPrefixed(a, b, 16, latin1, ByteArrayAccess.instance(), ByteArrayAccess.baseOffset(), latin1.length);
+            }
+        }
+        final int len = input.length();
+        if (Strings.asciiEnd(input, 0, len) == len) {
+            return hashPrefixed(a, b, 16, input, AsciiCharSequenceAccess.instance(), 0, len);
+        }
+        return super.hash(a, b, input);
+    }
+
+    /**
+     * Hashes the {@code prefixLen} (8 or 16) bytes of {@code p1} and {@code p2}, followed by the
+     * given bytes, which are read right from the input, shifted by the prefix. Only the words
+     * overlapping the prefix are composed by {@link #prefixedI64}. Over 240 bytes, the prefix is
+     * folded into the first stripe, and the loop continues from the second one.
+     */
+    private static <T> long hashPrefixed(final long p1, final long p2, final int prefixLen,
+                                         final T input, final Access<T> access, final long off,
+                                         final long length) {
+        final long totalLen = prefixLen + length;
+        // offset of the prefix, if it preceded the bytes in the input
+        final long base = off - prefixLen;
+        if (totalLen <= 16) {
+            if (totalLen == 8) {
+                // len_4to8_64b
+                return rrmxmx(((p1 >>> 32) + (p1 << 32)) ^ Secret.BITFLIP_4TO8, 8);
+            }
+            return len9to16(p1, prefixedI64(p1, p2, prefixLen, input, access, off, length, totalLen - 8), totalLen);
+        }
+        if (totalLen <= 128) {
+            // len_17to128_64b
+            long acc = totalLen * XXH_PRIME64_1;
+
+            if (totalLen > 32) {
+                if (totalLen > 64) {
+                    if (totalLen > 96) {
+                        acc += mix16B(input, access, base + 48, Secret.ROUND_12, Secret.ROUND_13);
+                        acc += mix16BPrefixed(p1, p2, prefixLen, input, access, off, length, totalLen - 64, Secret.ROUND_14, Secret.ROUND_15);
+                    }
+                    acc += mix16B(input, access, base + 32, Secret.ROUND_8, Secret.ROUND_9);
+                    acc += mix16BPrefixed(p1, p2, prefixLen, input, access, off, length, totalLen - 48, Secret.ROUND_10, Secret.ROUND_11);
+                }
+                acc += mix16B(input, access, base + 16, Secret.ROUND_4, Secret.ROUND_5);
+                acc += mix16BPrefixed(p1, p2, prefixLen, input, access, off, length, totalLen - 32, Secret.ROUND_6, Secret.ROUND_7);
+            }
+            acc += mix16BPrefixed(p1, p2, prefixLen, input, access, off, length, 0, Secret.ROUND_0, Secret.ROUND_1);
+            acc += mix16BPrefixed(p1, p2, prefixLen, input, access, off, length, totalLen - 16, Secret.ROUND_2, Secret.ROUND_3);
+
+            return avalanche(acc);
+        }
+        final long p2OrFirst = prefixLen == 16 ? p2 : i64(input, access, off);
+        if (totalLen <= 240) {
+            // len_129to240_64b
+            long acc = totalLen * XXH_PRIME64_1;
+            final int nbRounds = (int)totalLen / 16;
+            acc += unsignedLongMulXorFold(p1 ^ Secret.ROUND_0, p2OrFirst ^ Secret.ROUND_1);
+            acc += mix16B(input, access, base + 16, Secret.ROUND_2, Secret.ROUND_3);
+            acc += mix16B(input, access, base + 16*2, Secret.ROUND_4, Secret.ROUND_5);
+            acc += mix16B(input, access, base + 16*3, Secret.ROUND_6, Secret.ROUND_7);
+            acc += mix16B(input, access, base + 16*4, Secret.ROUND_8, Secret.ROUND_9);
+            acc += mix16B(input, access, base + 16*5, Secret.ROUND_10, Secret.ROUND_11);
+            acc += mix16B(input, access, base + 16*6, Secret.ROUND_12, Secret.ROUND_13);
+            acc += mix16B(input, access, base + 16*7, Secret.ROUND_14, Secret.ROUND_15);
+            acc = avalanche(acc);
+
+            final long[] mid = Secret.MID;
+            for (int i = 8; i < nbRounds; ++i) {
+                acc += mix16B(input, access, base + 16L*i, mid[2*(i-8)], mid[2*(i-8) + 1]);
+            }
+
+            /* last bytes */
+            acc += mix16B(input, access, base + totalLen - 16, Secret.MID_LAST_LO, Secret.MID_LAST_HI);
+            return avalanche(acc);
+        }
+
+        // hashLong_64b_internal, accumulating the first stripe, which holds the prefix
+        final long[] sec = Secret.STRIPE;
+        long acc_0 = XXH_PRIME32_3;
+        long acc_1 = XXH_PRIME64_1;
+        long acc_2 = XXH_PRIME64_2;
+        long acc_3 = XXH_PRIME64_3;
+        long acc_4 = XXH_PRIME64_4;
+        long acc_5 = XXH_PRIME32_2;
+        long acc_6 = XXH_PRIME64_5;
+        long acc_7 = XXH_PRIME32_1;
+        {
+            final long data_key_0 = p1 ^ sec[0];
+            final long data_key_1 = p2OrFirst ^ sec[1];
+            /* swap adjacent lanes */
+            acc_0 += p2OrFirst + (0xFFFFFFFFL & data_key_0) * (data_key_0 >>> 32);
+            acc_1 += p1 + (0xFFFFFFFFL & data_key_1) * (data_key_1 >>> 32);
+        }
+        {
+            final long data_val_0 = i64(input, access, base + 8*2);
+            final long data_val_1 = i64(input, access, base + 8*3);
+            final long data_key_0 = data_val_0 ^ sec[2];
+            final long data_key_1 = data_val_1 ^ sec[3];
+            /* swap adjacent lanes */
+            acc_2 += data_val_1 + (0xFFFFFFFFL & data_key_0) * (data_key_0 >>> 32);
+            acc_3 += data_val_0 + (0xFFFFFFFFL & data_key_1) * (data_key_1 >>> 32);
+        }
+        {
+            final long data_val_0 = i64(input, access, base + 8*4);
+            final long data_val_1 = i64(input, access, base + 8*5);
+            final long data_key_0 = data_val_0 ^ sec[4];
+            final long data_key_1 = data_val_1 ^ sec[5];
+            /* swap adjacent lanes */
+            acc_4 += data_val_1 + (0xFFFFFFFFL & data_key_0) * (data_key_0 >>> 32);
+            acc_5 += data_val_0 + (0xFFFFFFFFL & data_key_1) * (data_key_1 >>> 32);
+        }
+        {
+            final long data_val_0 = i64(input, access, base + 8*6);
+            final long data_val_1 = i64(input, access, base + 8*7);
+            final long data_key_0 = data_val_0 ^ sec[6];
+            final long data_key_1 = data_val_1 ^ sec[7];
+            /* swap adjacent lanes */
+            acc_6 += data_val_1 + (0xFFFFFFFFL & data_key_0) * (data_key_0 >>> 32);
+            acc_7 += data_val_0 + (0xFFFFFFFFL & data_key_1) * (data_key_1 >>> 32);
+        }
+        return hashLong(input, access, base, totalLen, 1,
+                acc_0, acc_1, acc_2, acc_3, acc_4, acc_5, acc_6, acc_7);
+    }
+
+    private static <T> long mix16BPrefixed(final long p1, final long p2, final int prefixLen,
+                                           final T input, final Access<T> access, final long off,
+                                           final long length, final long pos,
+                                           final long secLo, final long secHi) {
+        final long input_lo = prefixedI64(p1, p2, prefixLen, input, access, off, length, pos);
+        final long input_hi = prefixedI64(p1, p2, prefixLen, input, access, off, length, pos + 8);
+        return unsignedLongMulXorFold(input_lo ^ secLo, input_hi ^ secHi);
+    }
+
+    /**
+     * Returns the 8 bytes at {@code pos} of the prefix followed by the input, for {@code pos + 8 <=
+     * prefixLen + length}.
+     */
+    private static <T> long prefixedI64(final long p1, final long p2, final int prefixLen,
+                                        final T input, final Access<T> access, final long off,
+                                        final long length, final long pos) {
+        if (pos >= prefixLen) {
+            return i64(input, access, off + pos - prefixLen);
+        }
+        if (pos == 0) {
+            return p1;
+        }
+        final int shift = (int) pos << 3;
+        final long prefix;
+        if (pos < 8) {
+            prefix = prefixLen == 16 ? (p1 >>> shift) | (p2 << (64 - shift)) : p1 >>> shift;
+        } else {
+            prefix = p2 >>> (shift - 64);
+        }
+        final int prefixBytes = prefixLen - (int) pos;
+        if (prefixBytes >= 8) {
+            return prefix;
+        }
+        // the first 8 - prefixBytes bytes of the input follow the prefix
+        long first;
+        if (length >= 8) {
+            first = i64(input, access, off);
+        } else {
+            first = 0;
+            for (int i = 0; i < 8 - prefixBytes; i++) {
+                first |= (long) u8(input, access, off + i) << (i << 3);
+            }
+        }
+        return prefix | first << (prefixBytes << 3);
+    }
+
+    /**
+     * Hashes keys of up to 16 bytes inline, without the calls and the length dispatch of
+     * {@link #hash(Object, Access, long, long)}. Longer keys are hashed by {@link #hash(Object, Access, long, long)}.
+     */
+    @Override
+    protected <T> void hashBatch(final T input, final Access<T> access, final long base,
+                                 final int[] offsets, final int[] lengths, final long[] out) {
+        for (int i = 0; i < offsets.length; i++) {
+            final long off = base + offsets[i];
+            final int length = lengths[i];
+            final long h;
+            if (length > 16) {
+                h = hash(input, access, off, length);
+            } else if (length > 8) {
+                final long input_lo = i64(input, access, off) ^ Secret.BITFLIP_9TO16_LO;
+                final long input_hi = i64(input, access, off + length - 8) ^ Secret.BITFLIP_9TO16_HI;
+                h = avalanche(length + Long.reverseBytes(input_lo) + input_hi
+                        + unsignedLongMulXorFold(input_lo, input_hi));
+            } else if (length >= 4) {
+                final long input1 = i32(input, access, off);
+                final long input2 = u32(input, access, off + length - 4);
+                h = rrmxmx((input2 + (input1 << 32)) ^ Secret.BITFLIP_4TO8, length);
+            } else if (length != 0) {
+                final int c1 = u8(input, access, off);
+                final int c2 = i8(input, access, off + (length >> 1));
+                final int c3 = u8(input, access, off + length - 1);
+                final long combined = Primitives.unsignedInt((c1 << 16) | (c2  << 24) | c3 | (length << 8));
+                h = XXH64_avalanche(combined ^ Secret.BITFLIP_1TO3);
+            } else {
+                h = XXH64_avalanche(Secret.BITFLIP_0);
+            }
+            out[i] = h;
+        }
+    }
+
+    /**
+     * Hashes keys of 4 to 16 bytes in 4 interleaved lanes: the short dependency chain of each key
+     * leaves the multipliers idle, so 4 independent chains are issued together. Other keys are
+     * hashed by {@link #hash(Object, Access, long, long)}.
+     */
+    @Override
+    protected <T> void hashBatch(final T input, final Access<T> access, long off,
+                                 final int keyLength, final int count, final long[] out) {
+        int i = 0;
+        if (keyLength > 8 && keyLength <= 16) {
+            final long bitflip1 = Secret.BITFLIP_9TO16_LO;
+            final long bitflip2 = Secret.BITFLIP_9TO16_HI;
+            final long hiOff = keyLength - 8;
+            for (; i + 4 <= count; i += 4, off += 4L * keyLength) {
+                final long off1 = off + keyLength;
+                final long off2 = off1 + keyLength;
+                final long off3 = off2 + keyLength;
+                final long lo0 = i64(input, access, off) ^ bitflip1;
+                final long lo1 = i64(input, access, off1) ^ bitflip1;
+                final long lo2 = i64(input, access, off2) ^ bitflip1;
+                final long lo3 = i64(input, access, off3) ^ bitflip1;
+                final long hi0 = i64(input, access, off + hiOff) ^ bitflip2;
+                final long hi1 = i64(input, access, off1 + hiOff) ^ bitflip2;
+                final long hi2 = i64(input, access, off2 + hiOff) ^ bitflip2;
+                final long hi3 = i64(input, access, off3 + hiOff) ^ bitflip2;
+                final long acc0 = keyLength + Long.reverseBytes(lo0) + hi0 + unsignedLongMulXorFold(lo0, hi0);
+                final long acc1 = keyLength + Long.reverseBytes(lo1) + hi1 + unsignedLongMulXorFold(lo1, hi1);
+                final long acc2 = keyLength + Long.reverseBytes(lo2) + hi2 + unsignedLongMulXorFold(lo2, hi2);
+                final long acc3 = keyLength + Long.reverseBytes(lo3) + hi3 + unsignedLongMulXorFold(lo3, hi3);
+                out[i] = avalanche(acc0);
+                out[i + 1] = avalanche(acc1);
+                out[i + 2] = avalanche(acc2);
+                out[i + 3] = avalanche(acc3);
+            }
+        } else if (keyLength >= 4 && keyLength <= 8) {
+            final long bitflip = Secret.BITFLIP_4TO8;
+            final long tailOff = keyLength - 4;
+            for (; i + 4 <= count; i += 4, off += 4L * keyLength) {
+                final long off1 = off + keyLength;
+                final long off2 = off1 + keyLength;
+                final long off3 = off2 + keyLength;
+                final long keyed0 = (u32(input, access, off + tailOff) + ((long) i32(input, access, off) << 32)) ^ bitflip;
+                final long keyed1 = (u32(input, access, off1 + tailOff) + ((long) i32(input, access, off1) << 32)) ^ bitflip;
+                final long keyed2 = (u32(input, access, off2 + tailOff) + ((long) i32(input, access, off2) << 32)) ^ bitflip;
+                final long keyed3 = (u32(input, access, off3 + tailOff) + ((long) i32(input, access, off3) << 32)) ^ bitflip;
+                out[i] = rrmxmx(keyed0, keyLength);
+                out[i + 1] = rrmxmx(keyed1, keyLength);
+                out[i + 2] = rrmxmx(keyed2, keyLength);
+                out[i + 3] = rrmxmx(keyed3, keyLength);
+            }
+        }
+        for (; i < count; i++, off += keyLength) {
+            out[i] = hash(input, access, off, keyLength);
+        }
+    }
+
+    @Override
+    public HashState newState() {
+        return State.create();
+    }
+
+    private static long len9to16(final long lo, final long hi, final long length) {
+        final long input_lo = lo ^ Secret.BITFLIP_9TO16_LO;
+        final long input_hi = hi ^ Secret.BITFLIP_9TO16_HI;
+        final long acc = length + Long.reverseBytes(input_lo) + input_hi + unsignedLongMulXorFold(input_lo, input_hi);
+        return avalanche(acc);
+    }
+
+    @Override
+    public HashFunction forFixedLength(final int len) {
+        super.forFixedLength(len);
+        // the long input loop doesn't depend on the length class
+        return len <= 240 ? FixedLength.of(len) : this;
     }
 
     private static long XXH64_avalanche(long h64) {
@@ -328,19 +700,547 @@ class XxHash3 extends HashFunction {
         return h64 ^ (h64 >>> 28);
     }
 
-    private static <T> long mix16B(final T input, final Access<T> access, final long offIn, final long offSec) {
-        final long input_lo = access.i64(input, offIn);
-        final long input_hi = access.i64(input, offIn + 8);
-        return unsignedLongMulXorFold(
-                input_lo ^ Secret.i64(offSec),
-                input_hi ^ Secret.i64(offSec+8)
-        );
+    private static <T> long mix16B(final T input, final Access<T> access, final long offIn,
+                                   final long secLo, final long secHi) {
+        final long input_lo = i64(input, access, offIn);
+        final long input_hi = i64(input, access, offIn + 8);
+        return unsignedLongMulXorFold(input_lo ^ secLo, input_hi ^ secHi);
+    }
+
+    private static long mergeAccs(final long length, final long acc_0, final long acc_1,
+                                  final long acc_2, final long acc_3, final long acc_4,
+                                  final long acc_5, final long acc_6, final long acc_7) {
+        final long[] sec = Secret.MERGE;
+        final long result64 = length * XXH_PRIME64_1
+                + unsignedLongMulXorFold(acc_0 ^ sec[0], acc_1 ^ sec[1])
+                + unsignedLongMulXorFold(acc_2 ^ sec[2], acc_3 ^ sec[3])
+                + unsignedLongMulXorFold(acc_4 ^ sec[4], acc_5 ^ sec[5])
+                + unsignedLongMulXorFold(acc_6 ^ sec[6], acc_7 ^ sec[7]);
+
+        return avalanche(result64);
+    }
+
+    /**
+     * Streaming XXH3 state, following {@code XXH3_state_t} of the reference implementation: input is
+     * consumed by 4 stripes at once, and up to 256 bytes are buffered, so that the last stripe could
+     * always be re-read on {@link #hash()}.
+     */
+    static final class State extends HashState {
+        private static final Access<byte[]> arrayLE = ByteArrayAccess.instance();
+        private static final long baseOffset = ByteArrayAccess.baseOffset();
+
+        private static final int BUFFER_SIZE = 256;
+        private static final int BUFFER_STRIPES = BUFFER_SIZE / 64;
+        private static final int BUFFER_WORDS = BUFFER_SIZE / 8;
+
+        private final long[] acc = new long[8];
+        private final long[] digestAcc = new long[8];
+        private final byte[] buffer = new byte[BUFFER_SIZE];
+        private final byte[] lastStripe = new byte[64];
+        private final long[] words = new long[BUFFER_WORDS];
+        private int bufferedSize;
+        private int nbStripesSoFar;
+        private long totalLen;
+
+        State() {
+            reset();
+        }
+
+        /**
+         * Returns a new state typed as {@code HashState}, so that the state is not loaded with
+         * {@code XxHash3}.
+         */
+        static HashState create() {
+            return new State();
+        }
+
+        @Override
+        public void reset() {
+            acc[0] = XXH_PRIME32_3;
+            acc[1] = XXH_PRIME64_1;
+            acc[2] = XXH_PRIME64_2;
+            acc[3] = XXH_PRIME64_3;
+            acc[4] = XXH_PRIME64_4;
+            acc[5] = XXH_PRIME32_2;
+            acc[6] = XXH_PRIME64_5;
+            acc[7] = XXH_PRIME32_1;
+            bufferedSize = 0;
+            nbStripesSoFar = 0;
+            totalLen = 0;
+        }
+
+        /**
+         * Sets this state to the given one, so that both states continue independently.
+         */
+        void copyFrom(final State other) {
+            System.arraycopy(other.acc, 0, acc, 0, 8);
+            System.arraycopy(other.buffer, 0, buffer, 0, BUFFER_SIZE);
+            bufferedSize = other.bufferedSize;
+            nbStripesSoFar = other.nbStripesSoFar;
+            totalLen = other.totalLen;
+        }
+
+        @Override
+        public void updateByte(final byte input) {
+            if (bufferedSize == BUFFER_SIZE) {
+                nbStripesSoFar = consumeStripes(acc, nbStripesSoFar, buffer, arrayLE, baseOffset, BUFFER_STRIPES);
+                bufferedSize = 0;
+            }
+            buffer[bufferedSize++] = input;
+            totalLen++;
+        }
+
+        @Override
+        public void updateLong(final long input) {
+            if (bufferedSize + 8 > BUFFER_SIZE) {
+                super.updateLong(input);
+                return;
+            }
+            putLong(buffer, bufferedSize, input);
+            bufferedSize += 8;
+            totalLen += 8;
+        }
+
+        @Override
+        protected <T> void update(final T input, final Access<T> access, long off, long len) {
+            totalLen += len;
+            if (bufferedSize + len <= BUFFER_SIZE) {
+                copy(input, access, off, buffer, bufferedSize, (int) len);
+                bufferedSize += (int) len;
+                return;
+            }
+            // total input is now > BUFFER_SIZE, so at least one byte remains after consuming the buffer
+            if (bufferedSize != 0) {
+                final int loadSize = BUFFER_SIZE - bufferedSize;
+                copy(input, access, off, buffer, bufferedSize, loadSize);
+                off += loadSize;
+                len -= loadSize;
+                nbStripesSoFar = consumeStripes(acc, nbStripesSoFar, buffer, arrayLE, baseOffset, BUFFER_STRIPES);
+                bufferedSize = 0;
+            }
+            if (len > BUFFER_SIZE && access == arrayLE) {
+                do {
+                    nbStripesSoFar = consumeStripes(acc, nbStripesSoFar, input, access, off, BUFFER_STRIPES);
+                    off += BUFFER_SIZE;
+                    len -= BUFFER_SIZE;
+                } while (len > BUFFER_SIZE);
+                // keep the last consumed stripe for the last partial stripe
+                copy(input, access, off - 64, buffer, BUFFER_SIZE - 64, 64);
+            } else if (len > BUFFER_SIZE) {
+                // other accesses read 4 stripes at once by a bulk read, instead of a call per word
+                do {
+                    access.i64s(input, off, words, 0, BUFFER_WORDS);
+                    nbStripesSoFar = consumeWords(acc, nbStripesSoFar, words);
+                    off += BUFFER_SIZE;
+                    len -= BUFFER_SIZE;
+                } while (len > BUFFER_SIZE);
+                for (int i = 0; i < 8; i++) {
+                    putLong(buffer, BUFFER_SIZE - 64 + (i << 3), words[BUFFER_WORDS - 8 + i]);
+                }
+            }
+            copy(input, access, off, buffer, 0, (int) len);
+            bufferedSize = (int) len;
+        }
+
+        @Override
+        public long hash() {
+            if (totalLen <= 240) {
+                return INSTANCE.hash(buffer, arrayLE, baseOffset, totalLen);
+            }
+            final long[] acc = digestAcc;
+            System.arraycopy(this.acc, 0, acc, 0, 8);
+            if (bufferedSize >= 64) {
+                final int nbStripes = (bufferedSize - 1) / 64;
+                consumeStripes(acc, nbStripesSoFar, buffer, arrayLE, baseOffset, nbStripes);
+                accumulate(acc, buffer, arrayLE, baseOffset + bufferedSize - 64, 1, Secret.LAST_STRIPE, 0);
+            } else {
+                final int catchupSize = 64 - bufferedSize;
+                System.arraycopy(buffer, BUFFER_SIZE - catchupSize, lastStripe, 0, catchupSize);
+                System.arraycopy(buffer, 0, lastStripe, catchupSize, bufferedSize);
+                accumulate(acc, lastStripe, arrayLE, baseOffset, 1, Secret.LAST_STRIPE, 0);
+            }
+
+            return mergeAccs(totalLen, acc[0], acc[1], acc[2], acc[3], acc[4], acc[5], acc[6], acc[7]);
+        }
+
+        /**
+         * Accumulates {@code nbStripes} stripes, scrambling the accumulators at the end of each block,
+         * and returns the new number of stripes consumed in the current block.
+         */
+        private static <T> int consumeStripes(final long[] acc, final int nbStripesSoFar,
+                                              final T input, final Access<T> access, final long off,
+                                              final int nbStripes) {
+            if (nbStripesPerBlock - nbStripesSoFar <= nbStripes) {
+                // need a scrambling operation
+                final int nbStripesToEndOfBlock = (int) nbStripesPerBlock - nbStripesSoFar;
+                final int nbStripesAfterBlock = nbStripes - nbStripesToEndOfBlock;
+                accumulate(acc, input, access, off, nbStripesToEndOfBlock, Secret.STRIPE, nbStripesSoFar);
+                scramble(acc);
+                accumulate(acc, input, access, off + nbStripesToEndOfBlock * 64L, nbStripesAfterBlock, Secret.STRIPE, 0);
+                return nbStripesAfterBlock;
+            }
+            accumulate(acc, input, access, off, nbStripes, Secret.STRIPE, nbStripesSoFar);
+            return nbStripesSoFar + nbStripes;
+        }
+
+        /**
+         * Accumulates the {@link #BUFFER_STRIPES} stripes of the given words, like {@link
+         * #consumeStripes}. The input is consumed by whole buffers only, so the stripes never
+         * cross the end of a block.
+         */
+        private static int consumeWords(final long[] acc, final int nbStripesSoFar, final long[] words) {
+            final long[] sec = Secret.STRIPE;
+            long acc_0 = acc[0];
+            long acc_1 = acc[1];
+            long acc_2 = acc[2];
+            long acc_3 = acc[3];
+            long acc_4 = acc[4];
+            long acc_5 = acc[5];
+            long acc_6 = acc[6];
+            long acc_7 = acc[7];
+            for (int s = 0; s < BUFFER_STRIPES; s++) {
+                // accumulate_512
+                final int w = s << 3;
+                final int k = nbStripesSoFar + s;
+                {
+                    final long data_val_0 = words[w];
+                    final long data_val_1 = words[w + 1];
+                    final long data_key_0 = data_val_0 ^ sec[k];
+                    final long data_key_1 = data_val_1 ^ sec[k + 1];
+                    /* swap adjacent lanes */
+                    acc_0 += data_val_1 + (0xFFFFFFFFL & data_key_0) * (data_key_0 >>> 32);
+                    acc_1 += data_val_0 + (0xFFFFFFFFL & data_key_1) * (data_key_1 >>> 32);
+                }
+                {
+                    final long data_val_0 = words[w + 2];
+                    final long data_val_1 = words[w + 3];
+                    final long data_key_0 = data_val_0 ^ sec[k + 2];
+                    final long data_key_1 = data_val_1 ^ sec[k + 3];
+                    /* swap adjacent lanes */
+                    acc_2 += data_val_1 + (0xFFFFFFFFL & data_key_0) * (data_key_0 >>> 32);
+                    acc_3 += data_val_0 + (0xFFFFFFFFL & data_key_1) * (data_key_1 >>> 32);
+                }
+                {
+                    final long data_val_0 = words[w + 4];
+                    final long data_val_1 = words[w + 5];
+                    final long data_key_0 = data_val_0 ^ sec[k + 4];
+                    final long data_key_1 = data_val_1 ^ sec[k + 5];
+                    /* swap adjacent lanes */
+                    acc_4 += data_val_1 + (0xFFFFFFFFL & data_key_0) * (data_key_0 >>> 32);
+                    acc_5 += data_val_0 + (0xFFFFFFFFL & data_key_1) * (data_key_1 >>> 32);
+                }
+                {
+                    final long data_val_0 = words[w + 6];
+                    final long data_val_1 = words[w + 7];
+                    final long data_key_0 = data_val_0 ^ sec[k + 6];
+                    final long data_key_1 = data_val_1 ^ sec[k + 7];
+                    /* swap adjacent lanes */
+                    acc_6 += data_val_1 + (0xFFFFFFFFL & data_key_0) * (data_key_0 >>> 32);
+                    acc_7 += data_val_0 + (0xFFFFFFFFL & data_key_1) * (data_key_1 >>> 32);
+                }
+            }
+            acc[0] = acc_0;
+            acc[1] = acc_1;
+            acc[2] = acc_2;
+            acc[3] = acc_3;
+            acc[4] = acc_4;
+            acc[5] = acc_5;
+            acc[6] = acc_6;
+            acc[7] = acc_7;
+            if (nbStripesSoFar + BUFFER_STRIPES == nbStripesPerBlock) {
+                scramble(acc);
+                return 0;
+            }
+            return nbStripesSoFar + BUFFER_STRIPES;
+        }
+
+        /**
+         * Accumulates {@code nbStripes} stripes, the stripe {@code s} keyed by the secret words
+         * {@code sec[secStripe + s .. secStripe + s + 7]}.
+         */
+        private static <T> void accumulate(final long[] acc, final T input, final Access<T> access,
+                                           final long off, final int nbStripes,
+                                           final long[] sec, final int secStripe) {
+            long acc_0 = acc[0];
+            long acc_1 = acc[1];
+            long acc_2 = acc[2];
+            long acc_3 = acc[3];
+            long acc_4 = acc[4];
+            long acc_5 = acc[5];
+            long acc_6 = acc[6];
+            long acc_7 = acc[7];
+            for (int s = 0; s < nbStripes; s++) {
+                // accumulate_512
+                final long offStripe = off + s * 64L;
+                final int k = secStripe + s;
+                {
+                    final long data_val_0 = i64(input, access, offStripe);
+                    final long data_val_1 = i64(input, access, offStripe + 8);
+                    final long data_key_0 = data_val_0 ^ sec[k];
+                    final long data_key_1 = data_val_1 ^ sec[k + 1];
+                    /* swap adjacent lanes */
+                    acc_0 += data_val_1 + (0xFFFFFFFFL & data_key_0) * (data_key_0 >>> 32);
+                    acc_1 += data_val_0 + (0xFFFFFFFFL & data_key_1) * (data_key_1 >>> 32);
+                }
+                {
+                    final long data_val_0 = i64(input, access, offStripe + 8*2);
+                    final long data_val_1 = i64(input, access, offStripe + 8*3);
+                    final long data_key_0 = data_val_0 ^ sec[k + 2];
+                    final long data_key_1 = data_val_1 ^ sec[k + 3];
+                    /* swap adjacent lanes */
+                    acc_2 += data_val_1 + (0xFFFFFFFFL & data_key_0) * (data_key_0 >>> 32);
+                    acc_3 += data_val_0 + (0xFFFFFFFFL & data_key_1) * (data_key_1 >>> 32);
+                }
+                {
+                    final long data_val_0 = i64(input, access, offStripe + 8*4);
+                    final long data_val_1 = i64(input, access, offStripe + 8*5);
+                    final long data_key_0 = data_val_0 ^ sec[k + 4];
+                    final long data_key_1 = data_val_1 ^ sec[k + 5];
+                    /* swap adjacent lanes */
+                    acc_4 += data_val_1 + (0xFFFFFFFFL & data_key_0) * (data_key_0 >>> 32);
+                    acc_5 += data_val_0 + (0xFFFFFFFFL & data_key_1) * (data_key_1 >>> 32);
+                }
+                {
+                    final long data_val_0 = i64(input, access, offStripe + 8*6);
+                    final long data_val_1 = i64(input, access, offStripe + 8*7);
+                    final long data_key_0 = data_val_0 ^ sec[k + 6];
+                    final long data_key_1 = data_val_1 ^ sec[k + 7];
+                    /* swap adjacent lanes */
+                    acc_6 += data_val_1 + (0xFFFFFFFFL & data_key_0) * (data_key_0 >>> 32);
+                    acc_7 += data_val_0 + (0xFFFFFFFFL & data_key_1) * (data_key_1 >>> 32);
+                }
+            }
+            acc[0] = acc_0;
+            acc[1] = acc_1;
+            acc[2] = acc_2;
+            acc[3] = acc_3;
+            acc[4] = acc_4;
+            acc[5] = acc_5;
+            acc[6] = acc_6;
+            acc[7] = acc_7;
+        }
+
+        private static void scramble(final long[] acc) {
+            // scrambleAcc_scalar
+            final long[] sec = Secret.STRIPE;
+            for (int i = 0; i < 8; i++) {
+                acc[i] = (acc[i] ^ (acc[i] >>> 47) ^ sec[16 + i]) * XXH_PRIME32_1;
+            }
+        }
+    }
+
+    /**
+     * XXH3 specialized for inputs of {@code len} bytes, with the length-dependent offsets of its
+     * path computed at construction. Inputs of other lengths are hashed by {@link #INSTANCE}.
+     */
+    private abstract static class FixedLength extends HashFunction {
+        final int len;
+
+        FixedLength(final int len) {
+            this.len = len;
+        }
+
+        /**
+         * Returns the function of the length class of {@code len <= 240}. They are created here,
+         * rather than in {@link XxHash3#forFixedLength(int)}, so the length classes are not loaded
+         * with {@code XxHash3}.
+         */
+        static HashFunction of(final int len) {
+            if (len == 0) {
+                return new FixedLength0();
+            } else if (len <= 3) {
+                return new FixedLength1to3(len);
+            } else if (len <= 8) {
+                return new FixedLength4to8(len);
+            } else if (len <= 16) {
+                return new FixedLength9to16(len);
+            }
+            return new FixedLength17to240(len);
+        }
+
+        abstract <T> long hashFixed(T input, Access<T> access, long off);
+
+        @Override
+        protected <T> long hash(final T input, final Access<T> access, final long off, final long length) {
+            if (length != len) {
+                return INSTANCE.hash(input, access, off, length);
+            }
+            return hashFixed(input, access, off);
+        }
+
+        @Override
+        public long hash(final long a, final long b) {
+            return INSTANCE.hash(a, b);
+        }
+
+        @Override
+        public long hash(final long prefix, final byte[] input, final int off, final int len) {
+            return INSTANCE.hash(prefix, input, off, len);
+        }
+
+        @Override
+        public long hash(final long a, final long b, final CharSequence input) {
+            return INSTANCE.hash(a, b, input);
+        }
+
+        @Override
+        protected <T> void hashBatch(final T input, final Access<T> access, final long base,
+                                     final int[] offsets, final int[] lengths, final long[] out) {
+            INSTANCE.hashBatch(input, access, base, offsets, lengths, out);
+        }
+
+        @Override
+        protected <T> void hashBatch(final T input, final Access<T> access, final long off,
+                                     final int keyLength, final int count, final long[] out) {
+            INSTANCE.hashBatch(input, access, off, keyLength, count, out);
+        }
+
+        @Override
+        public HashState newState() {
+            return INSTANCE.newState();
+        }
+
+        @Override
+        public HashFunction forFixedLength(final int len) {
+            return INSTANCE.forFixedLength(len);
+        }
+    }
+
+    private static final class FixedLength0 extends FixedLength {
+        FixedLength0() {
+            super(0);
+        }
+
+        @Override
+        <T> long hashFixed(final T input, final Access<T> access, final long off) {
+            return XXH64_avalanche(Secret.BITFLIP_0);
+        }
     }
 
-    private static long mix2Accs(final long acc_lh, final long acc_rh, final long offSec) {
-        return unsignedLongMulXorFold(
-                acc_lh ^ Secret.i64(offSec),
-                acc_rh ^ Secret.i64(offSec+8)
-        );
+    private static final class FixedLength1to3 extends FixedLength {
+        private final long mid;
+        private final long last;
+        private final int lenBits;
+
+        FixedLength1to3(final int len) {
+            super(len);
+            mid = len >> 1;
+            last = len - 1;
+            lenBits = len << 8;
+        }
+
+        @Override
+        <T> long hashFixed(final T input, final Access<T> access, final long off) {
+            final int c1 = u8(input, access, off);
+            final int c2 = i8(input, access, off + mid); // high 3 bytes will be shifted
+            final int c3 = u8(input, access, off + last);
+            final long combined = Primitives.unsignedInt((c1 << 16) | (c2  << 24) | c3 | lenBits);
+            return XXH64_avalanche(combined ^ Secret.BITFLIP_1TO3);
+        }
+    }
+
+    private static final class FixedLength4to8 extends FixedLength {
+        private final long tail;
+
+        FixedLength4to8(final int len) {
+            super(len);
+            tail = len - 4;
+        }
+
+        @Override
+        <T> long hashFixed(final T input, final Access<T> access, final long off) {
+            final long input1 = i32(input, access, off); // high int will be shifted
+            final long input2 = u32(input, access, off + tail);
+            return rrmxmx((input2 + (input1 << 32)) ^ Secret.BITFLIP_4TO8, len);
+        }
+    }
+
+    private static final class FixedLength9to16 extends FixedLength {
+        private final long tail;
+
+        FixedLength9to16(final int len) {
+            super(len);
+            tail = len - 8;
+        }
+
+        @Override
+        <T> long hashFixed(final T input, final Access<T> access, final long off) {
+            final long input_lo = i64(input, access, off) ^ Secret.BITFLIP_9TO16_LO;
+            final long input_hi = i64(input, access, off + tail) ^ Secret.BITFLIP_9TO16_HI;
+            return avalanche(len + Long.reverseBytes(input_lo) + input_hi
+                    + unsignedLongMulXorFold(input_lo, input_hi));
+        }
+    }
+
+    /**
+     * The {@code len_17to128_64b} and {@code len_129to240_64b} paths, as a list of 16-byte mixes
+     * at fixed input offsets with fixed secret words. For inputs over 128 bytes, the accumulator
+     * is avalanched after the first 8 mixes.
+     */
+    private static final class FixedLength17to240 extends FixedLength {
+        private final long[] inputOffsets;
+        private final long[] secrets;
+        private final int roundsBeforeAvalanche;
+        private final long initAcc;
+
+        FixedLength17to240(final int len) {
+            super(len);
+            initAcc = len * XXH_PRIME64_1;
+            final long[] offsets = new long[16];
+            final long[] secretOffsets = new long[16];
+            int n = 0;
+            if (len <= 128) {
+                offsets[n] = 0; secretOffsets[n++] = 0;
+                offsets[n] = len - 16; secretOffsets[n++] = 16;
+                if (len > 32) {
+                    offsets[n] = 16; secretOffsets[n++] = 32;
+                    offsets[n] = len - 32; secretOffsets[n++] = 48;
+                }
+                if (len > 64) {
+                    offsets[n] = 32; secretOffsets[n++] = 64;
+                    offsets[n] = len - 48; secretOffsets[n++] = 80;
+                }
+                if (len > 96) {
+                    offsets[n] = 48; secretOffsets[n++] = 96;
+                    offsets[n] = len - 64; secretOffsets[n++] = 112;
+                }
+                roundsBeforeAvalanche = -1;
+            } else {
+                final int nbRounds = len / 16;
+                for (int i = 0; i < 8; i++) {
+                    offsets[n] = 16L * i; secretOffsets[n++] = 16L * i;
+                }
+                for (int i = 8; i < nbRounds; i++) {
+                    offsets[n] = 16L * i; secretOffsets[n++] = 16L * (i - 8) + 3;
+                }
+                offsets[n] = len - 16; secretOffsets[n++] = 136 - 17;
+                roundsBeforeAvalanche = 8;
+            }
+            inputOffsets = new long[n];
+            secrets = new long[2 * n];
+            for (int i = 0; i < n; i++) {
+                inputOffsets[i] = offsets[i];
+                secrets[2 * i] = Secret.i64(secretOffsets[i]);
+                secrets[2 * i + 1] = Secret.i64(secretOffsets[i] + 8);
+            }
+        }
+
+        @Override
+        <T> long hashFixed(final T input, final Access<T> access, final long off) {
+            final long[] inputOffsets = this.inputOffsets;
+            final long[] secrets = this.secrets;
+            long acc = initAcc;
+            int i = 0;
+            if (roundsBeforeAvalanche > 0) {
+                for (; i < roundsBeforeAvalanche; i++) {
+                    acc += mix16B(input, access, off + inputOffsets[i], secrets[2 * i], secrets[2 * i + 1]);
+                }
+                acc = avalanche(acc);
+            }
+            for (; i < inputOffsets.length; i++) {
+                acc += mix16B(input, access, off + inputOffsets[i], secrets[2 * i], secrets[2 * i + 1]);
+            }
+            return avalanche(acc);
+        }
     }
 }
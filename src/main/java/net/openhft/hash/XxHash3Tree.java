@@ -0,0 +1,373 @@
+/*
+ * Copyright 2014 Higher Frequency Trading http://www.higherfrequencytrading.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.openhft.hash;
+
+import net.openhft.access.Access;
+import net.openhft.access.ByteArrayAccess;
+import net.openhft.access.ByteBufferAccess;
+import net.openhft.internal.MappedBuffers;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Tree hash over <a href="https://github.com/Cyan4973/xxHash">XXH3 64bit</a>, which could hash a
+ * single large input on many cores. The input is split into leaves of {@link #leafSize()} bytes
+ * (the last leaf could be shorter), each leaf is hashed by {@link Hash#xx3()}, and the root hash
+ * is {@code Hash.xx3()} of the little-endian leaf hashes in order, followed by the little-endian
+ * total length of the input:
+ * <pre>{@code
+ * root = xx3(le64(xx3(leaf 0)) ++ ... ++ le64(xx3(leaf n - 1)) ++ le64(length))
+ * }</pre>
+ *
+ * <p>The result depends only on the input and the leaf size, so it's the same whether the input
+ * is hashed sequentially by the methods inherited from {@link HashFunction}, in chunks by a
+ * {@linkplain #newState() streaming state}, or in parallel by the {@code hashParallel()} methods
+ * with any number of threads. It is different from {@code Hash.xx3()} of the same input.
+ *
+ * <p>Unlike other hash functions, the one-shot methods of this function allocate a streaming
+ * state, and the parallel methods allocate an array of the leaf hashes, so this function is
+ * meant for inputs of many leaves, rather than for many short inputs.
+ *
+ * <h2>Format</h2>
+ * The definition above is version 1 of the tree hash format, and it's stable: tree hashes are
+ * persisted, e.g. as checksums of stored files, so for a given input and leaf size, the result
+ * stays the same across releases of this library and across platforms. The root is the 64-bit
+ * XXH3 of the leaf hashes, rather than a 128-bit hash, as the tree hash is 64-bit itself, like
+ * the leaf hashes it combines. A future format with a different leaf or root hash, e.g. a
+ * 128-bit one, will be a new function, and won't change the results of this one.
+ *
+ * @see Hash#xx3Tree(int)
+ */
+public final class XxHash3Tree extends HashFunction {
+    /**
+     * Default leaf size, 1 MiB.
+     */
+    public static final int DEFAULT_LEAF_SIZE = 1 << 20;
+
+    /**
+     * Minimum leaf size, 1 KiB, which bounds the size of the leaf hashes array of a parallel hash
+     * to 1/128 of the input.
+     */
+    public static final int MIN_LEAF_SIZE = 1 << 10;
+
+    /**
+     * Size of the memory-mapped windows {@link #hashFileParallel} leaf tasks read files by.
+     */
+    private static final int MAP_WINDOW = 1 << 26;
+
+    static final XxHash3Tree DEFAULT = new XxHash3Tree(DEFAULT_LEAF_SIZE);
+
+    private final int leafSize;
+
+    XxHash3Tree(final int leafSize) {
+        if (leafSize < MIN_LEAF_SIZE)
+            throw new IllegalArgumentException("leaf size should be at least " + MIN_LEAF_SIZE +
+                    ", " + leafSize + " given");
+        this.leafSize = leafSize;
+    }
+
+    /**
+     * Returns the number of bytes of each leaf, but the last one.
+     *
+     * @return the leaf size of this tree hash
+     */
+    public int leafSize() {
+        return leafSize;
+    }
+
+    @Override
+    protected <T> long hash(final T input, final Access<T> access, final long off, final long len) {
+        final State state = new State();
+        state.update(input, access, off, len);
+        return state.hash();
+    }
+
+    @Override
+    public HashState newState() {
+        return new State();
+    }
+
+    /**
+     * Returns the same hash code as {@link #hashBytes(byte[]) hashBytes(input)}, hashing the
+     * leaves in parallel in the given pool.
+     *
+     * @param input the array to read bytes from
+     * @param pool the pool to hash the leaves in
+     * @return tree hash code of the given array
+     */
+    public long hashParallel(@NotNull final byte[] input, @NotNull final ForkJoinPool pool) {
+        return hashParallel(input, 0, input.length, pool);
+    }
+
+    /**
+     * Returns the same hash code as {@link #hashBytes(byte[], int, int) hashBytes(input, off,
+     * len)}, hashing the leaves in parallel in the given pool.
+     *
+     * @param input the array to read bytes from
+     * @param off index of the first {@code byte} in the subsequence to hash
+     * @param len length of the subsequence to hash
+     * @param pool the pool to hash the leaves in
+     * @return tree hash code of the specified subsequence
+     * @throws IndexOutOfBoundsException if {@code off < 0} or {@code off + len > input.length}
+     * or {@code len < 0}
+     */
+    public long hashParallel(@NotNull final byte[] input, final int off, final int len,
+                             @NotNull final ForkJoinPool pool) {
+        checkBounds(off, len, input.length);
+        return hashParallel(input, ByteArrayAccess.instance(), ByteArrayAccess.baseOffset() + off, len, pool);
+    }
+
+    /**
+     * Returns the same hash code as {@link #hashBytes(ByteBuffer) hashBytes(input)}, hashing the
+     * leaves in parallel in the given pool. The buffer's position is not changed.
+     *
+     * @param input the buffer to read bytes from
+     * @param pool the pool to hash the leaves in
+     * @return tree hash code of the remaining bytes of the buffer
+     */
+    public long hashParallel(@NotNull final ByteBuffer input, @NotNull final ForkJoinPool pool) {
+        final int off = input.position();
+        final int len = input.remaining();
+        if (input.hasArray()) {
+            return hashParallel(input.array(), ByteArrayAccess.instance(),
+                    ByteArrayAccess.baseOffset(input) + off, len, pool);
+        } else if (input.isDirect() && ByteArrayAccess.readsAddresses()) {
+            return hashParallel(null, ByteArrayAccess.instance(), ByteArrayAccess.address(input) + off, len, pool);
+        } else {
+            return hashParallel(input, ByteBufferAccess.instance(input), off, len, pool);
+        }
+    }
+
+    /**
+     * Returns the same hash code as {@link #hashFile(FileChannel, long, long) hashFile(channel,
+     * pos, len)}, hashing the leaves in parallel in the given pool. Each leaf task memory-maps the
+     * window of the file it hashes, and unmaps it as soon as it's hashed. The channel's position
+     * is not changed.
+     *
+     * @param channel the file to read bytes from
+     * @param pos position of the first byte in the file to hash
+     * @param len number of bytes to hash
+     * @param pool the pool to hash the leaves in
+     * @return tree hash code of the specified region of the file
+     * @throws IndexOutOfBoundsException if {@code pos < 0} or {@code pos + len > channel.size()}
+     * or {@code len < 0}
+     * @throws IOException if an I/O error occurs
+     */
+    public long hashFileParallel(@NotNull final FileChannel channel, final long pos, final long len,
+                                 @NotNull final ForkJoinPool pool) throws IOException {
+        checkBounds(pos, len, channel.size());
+        final int leavesPerWindow = leafSize < MAP_WINDOW ? MAP_WINDOW / leafSize : 1;
+        final long[] leaves = new long[leafCount(len)];
+        if (leaves.length == 0) {
+            return root(leaves, len);
+        }
+        try {
+            pool.invoke(new LeafTask(new Leaves() {
+                @Override
+                void hash(final int from, final int to) {
+                    final long start = (long) from * leafSize;
+                    final long end = (long) to * leafSize < len ? (long) to * leafSize : len;
+                    final MappedByteBuffer buffer;
+                    try {
+                        buffer = channel.map(FileChannel.MapMode.READ_ONLY, pos + start, end - start);
+                    } catch (final IOException e) {
+                        throw new IOFailure(e);
+                    }
+                    try {
+                        if (ByteArrayAccess.readsAddresses()) {
+                            hashWindow(null, ByteArrayAccess.instance(), ByteArrayAccess.address(buffer),
+                                    end - start, leaves, from, to);
+                        } else {
+                            hashWindow(buffer, ByteBufferAccess.instance(buffer), 0, end - start, leaves, from, to);
+                        }
+                    } finally {
+                        MappedBuffers.unmap(buffer);
+                    }
+                }
+            }, 0, leaves.length, leavesPerWindow));
+        } catch (final RuntimeException e) {
+            for (Throwable t = e; t != null; t = t.getCause()) {
+                if (t instanceof IOFailure)
+                    throw (IOException) t.getCause();
+            }
+            throw e;
+        }
+        return root(leaves, len);
+    }
+
+    /**
+     * Hashes the leaves {@code [from, to)} of a window of {@code windowLen} bytes, starting from
+     * the leaf {@code from}.
+     */
+    private <T> void hashWindow(final T input, final Access<T> access, final long off, final long windowLen,
+                                final long[] leaves, final int from, final int to) {
+        for (int i = from; i < to; i++) {
+            final long start = (long) (i - from) * leafSize;
+            final long size = windowLen - start < leafSize ? windowLen - start : leafSize;
+            leaves[i] = XxHash3.INSTANCE.hash(input, access, off + start, size);
+        }
+    }
+
+    private <T> long hashParallel(final T input, final Access<T> access, final long off, final long len,
+                                  final ForkJoinPool pool) {
+        final long[] leaves = new long[leafCount(len)];
+        pool.invoke(new LeafTask(new Leaves() {
+            @Override
+            void hash(final int from, final int to) {
+                for (int i = from; i < to; i++) {
+                    final long start = (long) i * leafSize;
+                    final long size = len - start < leafSize ? len - start : leafSize;
+                    leaves[i] = XxHash3.INSTANCE.hash(input, access, off + start, size);
+                }
+            }
+        }, 0, leaves.length, 1));
+        return root(leaves, len);
+    }
+
+    private int leafCount(final long len) {
+        final long count = (len + leafSize - 1) / leafSize;
+        if (count > Integer.MAX_VALUE - 8)
+            throw new IllegalArgumentException(len + " bytes is too much for leaves of " + leafSize);
+        return (int) count;
+    }
+
+    private static long root(final long[] leaves, final long len) {
+        final HashState root = new XxHash3.State();
+        for (final long leaf : leaves) {
+            root.updateLong(leaf);
+        }
+        root.updateLong(len);
+        return root.hash();
+    }
+
+    /**
+     * Hashes a range of leaves of one input into the leaf hashes array.
+     */
+    private abstract static class Leaves {
+        abstract void hash(int from, int to);
+    }
+
+    /**
+     * Hashes the leaves {@code [from, to)}, splitting the range in halves until it's not longer
+     * than {@code grain} leaves.
+     */
+    private static final class LeafTask extends RecursiveAction {
+        private final Leaves leaves;
+        private final int from;
+        private final int to;
+        private final int grain;
+
+        LeafTask(final Leaves leaves, final int from, final int to, final int grain) {
+            this.leaves = leaves;
+            this.from = from;
+            this.to = to;
+            this.grain = grain;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= grain) {
+                leaves.hash(from, to);
+                return;
+            }
+            final int mid = (from + to) >>> 1;
+            invokeAll(new LeafTask(leaves, from, mid, grain), new LeafTask(leaves, mid, to, grain));
+        }
+    }
+
+    /**
+     * Carries an {@code IOException} of a leaf task through {@link ForkJoinPool#invoke}.
+     */
+    private static final class IOFailure extends RuntimeException {
+        IOFailure(final IOException cause) {
+            super(cause);
+        }
+    }
+
+    /**
+     * Streaming tree hash: the current leaf is fed to an XXH3 state, and the hash of each complete
+     * leaf is fed to the root XXH3 state. The partial last leaf and the length are fed to a copy
+     * of the root state, so {@link #hash()} doesn't alter the state.
+     */
+    private final class State extends HashState {
+        private final XxHash3.State leaf = new XxHash3.State();
+        private final XxHash3.State root = new XxHash3.State();
+        private final XxHash3.State last = new XxHash3.State();
+        private long leafLen;
+        private long totalLen;
+
+        @Override
+        public void reset() {
+            leaf.reset();
+            root.reset();
+            leafLen = 0;
+            totalLen = 0;
+        }
+
+        @Override
+        public long hash() {
+            last.copyFrom(root);
+            if (leafLen != 0) {
+                last.updateLong(leaf.hash());
+            }
+            last.updateLong(totalLen);
+            return last.hash();
+        }
+
+        @Override
+        public void updateByte(final byte input) {
+            leaf.updateByte(input);
+            totalLen++;
+            if (++leafLen == leafSize) {
+                completeLeaf();
+            }
+        }
+
+        @Override
+        protected <T> void update(final T input, final Access<T> access, long off, long len) {
+            totalLen += len;
+            while (len > 0) {
+                if (leafLen == 0 && len >= leafSize) {
+                    root.updateLong(XxHash3.INSTANCE.hash(input, access, off, leafSize));
+                    off += leafSize;
+                    len -= leafSize;
+                    continue;
+                }
+                final long chunk = leafSize - leafLen < len ? leafSize - leafLen : len;
+                leaf.update(input, access, off, chunk);
+                off += chunk;
+                len -= chunk;
+                leafLen += chunk;
+                if (leafLen == leafSize) {
+                    completeLeaf();
+                }
+            }
+        }
+
+        private void completeLeaf() {
+            root.updateLong(leaf.hash());
+            leaf.reset();
+            leafLen = 0;
+        }
+    }
+}
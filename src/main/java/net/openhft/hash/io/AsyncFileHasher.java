@@ -0,0 +1,353 @@
+/*
+ * Copyright 2014 Higher Frequency Trading http://www.higherfrequencytrading.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.openhft.hash.io;
+
+import net.openhft.hash.HashFunction;
+import net.openhft.hash.HashState;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.EOFException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.CompletionHandler;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Hashes regions of files through {@link AsynchronousFileChannel}, overlapping reads with hashing:
+ * the file is read into a fixed ring of preallocated direct buffers, so while one buffer is being
+ * hashed, reads into the following ones are already in flight. The result is equal to {@link
+ * HashFunction#hashBytes(byte[]) hashing} the whole region at once.
+ *
+ * <p>The memory used is bounded by {@code bufferCount * bufferSize} bytes allocated at
+ * construction, and reused by all hashes. A hasher computes one hash at a time; the buffers are
+ * released for the next hash right before the completion of the previous one is reported.
+ * Hashing runs in the threads completing the reads, i.e. the channel's thread pool.
+ *
+ * <p>Like {@code AsynchronousFileChannel.read()}, hashing is started either by the method
+ * returning a {@link Future}, or by the method accepting a {@link CompletionHandler}.
+ */
+public class AsyncFileHasher {
+    private static final int DEFAULT_BUFFER_COUNT = 2;
+    private static final int DEFAULT_BUFFER_SIZE = 1 << 20;
+
+    @NotNull
+    private final HashState state;
+    @NotNull
+    private final ByteBuffer[] buffers;
+    private final int bufferSize;
+    private final AtomicBoolean busy = new AtomicBoolean();
+
+    /**
+     * Creates a hasher with two buffers of 1 MiB.
+     *
+     * @param function the hash function to compute
+     * @throws UnsupportedOperationException if the function doesn't support streaming
+     */
+    public AsyncFileHasher(@NotNull HashFunction function) {
+        this(function, DEFAULT_BUFFER_COUNT, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Creates a hasher with the given number of direct buffers of the given size.
+     *
+     * @param function the hash function to compute
+     * @param bufferCount number of buffers, i.e. the maximum number of reads in flight
+     *                    plus one being hashed, at least 2
+     * @param bufferSize size of each buffer, i.e. of each read
+     * @throws IllegalArgumentException if {@code bufferCount < 2} or {@code bufferSize <= 0}
+     * @throws UnsupportedOperationException if the function doesn't support streaming
+     */
+    public AsyncFileHasher(@NotNull HashFunction function, int bufferCount, int bufferSize) {
+        if (bufferCount < 2)
+            throw new IllegalArgumentException("at least 2 buffers required, " + bufferCount + " given");
+        if (bufferSize <= 0)
+            throw new IllegalArgumentException("buffer size should be positive, " + bufferSize + " given");
+        this.state = function.newState();
+        this.buffers = new ByteBuffer[bufferCount];
+        for (int i = 0; i < bufferCount; i++) {
+            buffers[i] = ByteBuffer.allocateDirect(bufferSize);
+        }
+        this.bufferSize = bufferSize;
+    }
+
+    /**
+     * Starts hashing {@code len} bytes of the given file, starting from the given position.
+     *
+     * <p>The returned future fails with {@link EOFException} if the file ends before the region.
+     *
+     * @param channel the file to read bytes from
+     * @param pos position of the first byte in the file to hash
+     * @param len number of bytes to hash
+     * @return a future of the hash code of the region
+     * @throws IndexOutOfBoundsException if {@code pos < 0} or {@code len < 0}
+     * @throws IllegalStateException if a hash is already in progress
+     */
+    public Future<Long> hash(@NotNull AsynchronousFileChannel channel, long pos, long len) {
+        final HashFuture future = new HashFuture();
+        hash(channel, pos, len, null, future);
+        return future;
+    }
+
+    /**
+     * Starts hashing {@code len} bytes of the given file, starting from the given position, and
+     * reports the hash code or the failure to the given handler.
+     *
+     * <p>The handler fails with {@link EOFException} if the file ends before the region.
+     *
+     * @param channel the file to read bytes from
+     * @param pos position of the first byte in the file to hash
+     * @param len number of bytes to hash
+     * @param attachment the object to attach to the operation, could be {@code null}
+     * @param handler the handler for consuming the result
+     * @param <A> the type of the attachment
+     * @throws IndexOutOfBoundsException if {@code pos < 0} or {@code len < 0}
+     * @throws IllegalStateException if a hash is already in progress
+     */
+    public <A> void hash(@NotNull AsynchronousFileChannel channel, long pos, long len,
+                         A attachment, @NotNull CompletionHandler<Long, ? super A> handler) {
+        if ((pos | len | (pos + len)) < 0)
+            throw new IndexOutOfBoundsException();
+        if (!busy.compareAndSet(false, true))
+            throw new IllegalStateException("a hash is already in progress");
+        state.reset();
+        new Job<>(channel, pos, len, attachment, handler).start();
+    }
+
+    /**
+     * Hash of one region, split into buffer-sized reads. Read {@code k} goes to buffer
+     * {@code k % buffers.length}, and is issued only after read {@code k - buffers.length} is hashed.
+     */
+    private final class Job<A> implements CompletionHandler<Integer, Long> {
+        private final AsynchronousFileChannel channel;
+        private final long pos;
+        private final long len;
+        private final long reads;
+        private final A attachment;
+        private final CompletionHandler<Long, ? super A> handler;
+
+        // guarded by this
+        private final boolean[] ready = new boolean[buffers.length];
+        private long nextToHash;
+        private int inFlight;
+        private boolean draining;
+        private boolean finished;
+        private Throwable failure;
+
+        Job(AsynchronousFileChannel channel, long pos, long len,
+            A attachment, CompletionHandler<Long, ? super A> handler) {
+            this.channel = channel;
+            this.pos = pos;
+            this.len = len;
+            this.reads = (len + bufferSize - 1) / bufferSize;
+            this.attachment = attachment;
+            this.handler = handler;
+        }
+
+        void start() {
+            if (reads == 0) {
+                finish();
+                return;
+            }
+            for (long k = 0; k < reads && k < buffers.length; k++) {
+                read(k);
+            }
+        }
+
+        private void read(final long k) {
+            synchronized (this) {
+                if (failure != null) {
+                    return;
+                }
+                inFlight++;
+            }
+            final ByteBuffer buffer = buffers[(int) (k % buffers.length)];
+            final long start = k * bufferSize;
+            final long size = len - start < bufferSize ? len - start : bufferSize;
+            ((Buffer) buffer).clear();
+            ((Buffer) buffer).limit((int) size);
+            try {
+                channel.read(buffer, pos + start, k, this);
+            } catch (final Throwable e) {
+                failed(e, k);
+            }
+        }
+
+        @Override
+        public void completed(final Integer bytesRead, final Long k) {
+            final ByteBuffer buffer = buffers[(int) (k % buffers.length)];
+            if (bytesRead < 0) {
+                failed(new EOFException("file ends before " + (pos + len)), k);
+                return;
+            }
+            if (buffer.hasRemaining()) {
+                try {
+                    channel.read(buffer, pos + k * bufferSize + buffer.position(), k, this);
+                } catch (final Throwable e) {
+                    failed(e, k);
+                }
+                return;
+            }
+            final boolean failed;
+            synchronized (this) {
+                inFlight--;
+                ready[(int) (k % buffers.length)] = true;
+                failed = failure != null;
+                if (draining || (failed && inFlight != 0)) {
+                    return;
+                }
+                draining = !failed;
+            }
+            if (failed) {
+                finish();
+            } else {
+                drain();
+            }
+        }
+
+        /**
+         * Hashes the filled buffers in order, until the next one to hash is not filled yet.
+         * Only one thread drains at a time.
+         */
+        private void drain() {
+            while (true) {
+                final int i;
+                synchronized (this) {
+                    if (failure != null) {
+                        draining = false;
+                        if (inFlight != 0) {
+                            return;
+                        }
+                        break;
+                    }
+                    if (nextToHash == reads) {
+                        break;
+                    }
+                    i = (int) (nextToHash % buffers.length);
+                    if (!ready[i]) {
+                        draining = false;
+                        return;
+                    }
+                    ready[i] = false;
+                }
+                final ByteBuffer buffer = buffers[i];
+                state.updateBytes(buffer, 0, buffer.position());
+                final long next;
+                synchronized (this) {
+                    next = ++nextToHash + buffers.length - 1;
+                }
+                if (next < reads) {
+                    read(next);
+                }
+            }
+            finish();
+        }
+
+        @Override
+        public void failed(final Throwable exc, final Long k) {
+            synchronized (this) {
+                inFlight--;
+                if (failure == null) {
+                    failure = exc;
+                }
+                if (inFlight != 0 || draining) {
+                    return;
+                }
+            }
+            finish();
+        }
+
+        private void finish() {
+            final Throwable failure;
+            synchronized (this) {
+                if (finished) {
+                    return;
+                }
+                finished = true;
+                failure = this.failure;
+            }
+            if (failure != null) {
+                busy.set(false);
+                handler.failed(failure, attachment);
+            } else {
+                final long hash = state.hash();
+                busy.set(false);
+                handler.completed(hash, attachment);
+            }
+        }
+    }
+
+    private static final class HashFuture implements Future<Long>, CompletionHandler<Long, Object> {
+        private final CountDownLatch done = new CountDownLatch(1);
+        private volatile long result;
+        private volatile Throwable failure;
+
+        @Override
+        public void completed(Long result, Object attachment) {
+            this.result = result;
+            done.countDown();
+        }
+
+        @Override
+        public void failed(Throwable exc, Object attachment) {
+            this.failure = exc;
+            done.countDown();
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            return false;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return false;
+        }
+
+        @Override
+        public boolean isDone() {
+            return done.getCount() == 0;
+        }
+
+        @Override
+        public Long get() throws InterruptedException, ExecutionException {
+            done.await();
+            return report();
+        }
+
+        @Override
+        public Long get(long timeout, @NotNull TimeUnit unit)
+                throws InterruptedException, ExecutionException, TimeoutException {
+            if (!done.await(timeout, unit)) {
+                throw new TimeoutException();
+            }
+            return report();
+        }
+
+        private Long report() throws ExecutionException {
+            if (failure != null) {
+                throw new ExecutionException(failure);
+            }
+            return result;
+        }
+    }
+}
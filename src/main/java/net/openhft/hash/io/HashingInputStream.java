@@ -0,0 +1,127 @@
+/*
+ * Copyright 2014 Higher Frequency Trading http://www.higherfrequencytrading.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.openhft.hash.io;
+
+import net.openhft.hash.HashFunction;
+import net.openhft.hash.HashState;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * An {@link InputStream} feeding all the bytes read through it to a {@link HashState}, so that
+ * {@link #hash()} returns the hash of the bytes read so far, without buffering the whole stream.
+ *
+ * <p>Skipped bytes are read and hashed as well. Mark and reset are not supported.
+ */
+public class HashingInputStream extends FilterInputStream {
+    @NotNull
+    private final HashState state;
+    private byte[] skipBuffer;
+
+    /**
+     * Creates a stream reading from {@code in} and hashing with a new state of the given
+     * {@code function}.
+     *
+     * @param in the underlying input stream
+     * @param function the hash function to compute
+     * @throws UnsupportedOperationException if the function doesn't support streaming
+     */
+    public HashingInputStream(@NotNull InputStream in, @NotNull HashFunction function) {
+        this(in, function.newState());
+    }
+
+    /**
+     * Creates a stream reading from {@code in} and feeding the read bytes to the given
+     * {@code state}, without resetting it.
+     *
+     * @param in the underlying input stream
+     * @param state the state to update
+     */
+    public HashingInputStream(@NotNull InputStream in, @NotNull HashState state) {
+        super(in);
+        this.state = state;
+    }
+
+    @Override
+    public int read() throws IOException {
+        final int b = in.read();
+        if (b != -1) {
+            state.updateByte((byte) b);
+        }
+        return b;
+    }
+
+    @Override
+    public int read(@NotNull byte[] b, int off, int len) throws IOException {
+        final int n = in.read(b, off, len);
+        if (n > 0) {
+            state.updateBytes(b, off, n);
+        }
+        return n;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        if (n <= 0) {
+            return 0;
+        }
+        if (skipBuffer == null) {
+            skipBuffer = new byte[512];
+        }
+        long remaining = n;
+        while (remaining > 0) {
+            final int chunk = remaining < skipBuffer.length ? (int) remaining : skipBuffer.length;
+            final int read = read(skipBuffer, 0, chunk);
+            if (read < 0) {
+                break;
+            }
+            remaining -= read;
+        }
+        return n - remaining;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    @Override
+    public void mark(int readlimit) {}
+
+    @Override
+    public void reset() throws IOException {
+        throw new IOException("mark/reset not supported");
+    }
+
+    /**
+     * Returns the state the read bytes are fed to.
+     */
+    @NotNull
+    public HashState state() {
+        return state;
+    }
+
+    /**
+     * Returns the hash code of all the bytes read through this stream so far.
+     */
+    public long hash() {
+        return state.hash();
+    }
+}
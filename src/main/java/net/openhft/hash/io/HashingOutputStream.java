@@ -0,0 +1,85 @@
+/*
+ * Copyright 2014 Higher Frequency Trading http://www.higherfrequencytrading.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.openhft.hash.io;
+
+import net.openhft.hash.HashFunction;
+import net.openhft.hash.HashState;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * An {@link OutputStream} feeding all the bytes written through it to a {@link HashState}, so
+ * that {@link #hash()} returns the hash of the bytes written so far, without buffering them.
+ */
+public class HashingOutputStream extends FilterOutputStream {
+    @NotNull
+    private final HashState state;
+
+    /**
+     * Creates a stream writing to {@code out} and hashing with a new state of the given
+     * {@code function}.
+     *
+     * @param out the underlying output stream
+     * @param function the hash function to compute
+     * @throws UnsupportedOperationException if the function doesn't support streaming
+     */
+    public HashingOutputStream(@NotNull OutputStream out, @NotNull HashFunction function) {
+        this(out, function.newState());
+    }
+
+    /**
+     * Creates a stream writing to {@code out} and feeding the written bytes to the given
+     * {@code state}, without resetting it.
+     *
+     * @param out the underlying output stream
+     * @param state the state to update
+     */
+    public HashingOutputStream(@NotNull OutputStream out, @NotNull HashState state) {
+        super(out);
+        this.state = state;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        out.write(b);
+        state.updateByte((byte) b);
+    }
+
+    @Override
+    public void write(@NotNull byte[] b, int off, int len) throws IOException {
+        out.write(b, off, len);
+        state.updateBytes(b, off, len);
+    }
+
+    /**
+     * Returns the state the written bytes are fed to.
+     */
+    @NotNull
+    public HashState state() {
+        return state;
+    }
+
+    /**
+     * Returns the hash code of all the bytes written through this stream so far.
+     */
+    public long hash() {
+        return state.hash();
+    }
+}
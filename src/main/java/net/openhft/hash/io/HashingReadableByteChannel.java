@@ -0,0 +1,99 @@
+/*
+ * Copyright 2014 Higher Frequency Trading http://www.higherfrequencytrading.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.openhft.hash.io;
+
+import net.openhft.hash.HashFunction;
+import net.openhft.hash.HashState;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+
+/**
+ * A {@link ReadableByteChannel} decorator feeding all the bytes read through it to a {@link
+ * HashState}. The bytes are hashed in place, right in the destination buffer after the delegate
+ * channel has filled it, so direct buffers are read by address and nothing is copied. The
+ * position, limit and mark of the destination buffer are left exactly as the delegate set them.
+ */
+public class HashingReadableByteChannel implements ReadableByteChannel {
+    @NotNull
+    private final ReadableByteChannel delegate;
+    @NotNull
+    private final HashState state;
+
+    /**
+     * Creates a channel reading from {@code delegate} and hashing with a new state of the given
+     * {@code function}.
+     *
+     * @param delegate the underlying channel
+     * @param function the hash function to compute
+     * @throws UnsupportedOperationException if the function doesn't support streaming
+     */
+    public HashingReadableByteChannel(@NotNull ReadableByteChannel delegate,
+                                      @NotNull HashFunction function) {
+        this(delegate, function.newState());
+    }
+
+    /**
+     * Creates a channel reading from {@code delegate} and feeding the read bytes to the given
+     * {@code state}, without resetting it.
+     *
+     * @param delegate the underlying channel
+     * @param state the state to update
+     */
+    public HashingReadableByteChannel(@NotNull ReadableByteChannel delegate,
+                                      @NotNull HashState state) {
+        this.delegate = delegate;
+        this.state = state;
+    }
+
+    @Override
+    public int read(ByteBuffer dst) throws IOException {
+        final int position = dst.position();
+        final int n = delegate.read(dst);
+        if (n > 0) {
+            state.updateBytes(dst, position, n);
+        }
+        return n;
+    }
+
+    @Override
+    public boolean isOpen() {
+        return delegate.isOpen();
+    }
+
+    @Override
+    public void close() throws IOException {
+        delegate.close();
+    }
+
+    /**
+     * Returns the state the read bytes are fed to.
+     */
+    @NotNull
+    public HashState state() {
+        return state;
+    }
+
+    /**
+     * Returns the hash code of all the bytes read through this channel so far.
+     */
+    public long hash() {
+        return state.hash();
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2014 Higher Frequency Trading http://www.higherfrequencytrading.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.openhft.hash.io;
+
+import net.openhft.hash.HashFunction;
+import net.openhft.hash.HashState;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * A {@link WritableByteChannel} decorator feeding all the bytes written through it to a {@link
+ * HashState}. Only the bytes actually consumed by the delegate channel are hashed, in place in the
+ * source buffer, so direct buffers are read by address and nothing is copied. The position, limit
+ * and mark of the source buffer are left exactly as the delegate set them.
+ */
+public class HashingWritableByteChannel implements WritableByteChannel {
+    @NotNull
+    private final WritableByteChannel delegate;
+    @NotNull
+    private final HashState state;
+
+    /**
+     * Creates a channel writing to {@code delegate} and hashing with a new state of the given
+     * {@code function}.
+     *
+     * @param delegate the underlying channel
+     * @param function the hash function to compute
+     * @throws UnsupportedOperationException if the function doesn't support streaming
+     */
+    public HashingWritableByteChannel(@NotNull WritableByteChannel delegate,
+                                      @NotNull HashFunction function) {
+        this(delegate, function.newState());
+    }
+
+    /**
+     * Creates a channel writing to {@code delegate} and feeding the written bytes to the given
+     * {@code state}, without resetting it.
+     *
+     * @param delegate the underlying channel
+     * @param state the state to update
+     */
+    public HashingWritableByteChannel(@NotNull WritableByteChannel delegate,
+                                      @NotNull HashState state) {
+        this.delegate = delegate;
+        this.state = state;
+    }
+
+    @Override
+    public int write(ByteBuffer src) throws IOException {
+        final int position = src.position();
+        final int n = delegate.write(src);
+        if (n > 0) {
+            state.updateBytes(src, position, n);
+        }
+        return n;
+    }
+
+    @Override
+    public boolean isOpen() {
+        return delegate.isOpen();
+    }
+
+    @Override
+    public void close() throws IOException {
+        delegate.close();
+    }
+
+    /**
+     * Returns the state the written bytes are fed to.
+     */
+    @NotNull
+    public HashState state() {
+        return state;
+    }
+
+    /**
+     * Returns the hash code of all the bytes written through this channel so far.
+     */
+    public long hash() {
+        return state.hash();
+    }
+}
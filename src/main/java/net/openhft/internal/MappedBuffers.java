@@ -0,0 +1,126 @@
+/*
+ * Copyright 2014 Higher Frequency Trading http://www.higherfrequencytrading.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.openhft.internal;
+
+import org.jetbrains.annotations.NotNull;
+import sun.misc.Unsafe;
+
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+
+/**
+ * Deterministic unmapping of {@link MappedByteBuffer}s, instead of waiting for them to be
+ * garbage collected.
+ */
+@SuppressWarnings("Since15")
+public final class MappedBuffers {
+    @NotNull
+    private static final Unmapper INSTANCE = unmapper();
+
+    private MappedBuffers() {}
+
+    /**
+     * Selects {@code Unsafe.invokeCleaner()} on Java 9+ runtimes, {@code DirectByteBuffer.cleaner()}
+     * up to Java 8, where it's accessible by reflection without warnings, and no unmapping if
+     * {@code Unsafe} is not accessible on Java 9+ runtimes. {@code Unsafe} is looked up here
+     * even if {@link Unsafes#UNSAFE} is not used for reading memory.
+     */
+    private static Unmapper unmapper() {
+        try {
+            Unsafe.class.getMethod("invokeCleaner", ByteBuffer.class);
+        } catch (final NoSuchMethodException e) {
+            return new UnmapperJDK7();
+        } catch (final Throwable e) {
+            // no jdk.unsupported module
+            return new Unmapper();
+        }
+        final Unsafe unsafe = Unsafes.UNSAFE != null ? Unsafes.UNSAFE : Unsafes.theUnsafe();
+        return unsafe != null ? new UnmapperJDK9(unsafe) : new Unmapper();
+    }
+
+    /**
+     * Unmaps the given buffer. The buffer, and any buffer derived from it, must not be accessed
+     * after this call. If unmapping is not supported by the running JVM, the buffer is left to be
+     * unmapped by the garbage collector.
+     *
+     * @param buffer the buffer returned by {@code FileChannel.map()}
+     */
+    public static void unmap(@NotNull final MappedByteBuffer buffer) {
+        INSTANCE.unmapImp(buffer);
+    }
+
+    /**
+     * Leaves buffers to be unmapped by the garbage collector.
+     */
+    private static class Unmapper {
+        void unmapImp(MappedByteBuffer buffer) {}
+    }
+
+    private static class UnmapperJDK7 extends Unmapper {
+        private final Method cleaner;
+        private final Method clean;
+
+        UnmapperJDK7() {
+            Method cleaner = null;
+            Method clean = null;
+            try {
+                // DirectByteBuffer.cleaner() returns sun.misc.Cleaner up to JDK 8
+                final Class<?> bufferClass = Class.forName("java.nio.DirectByteBuffer");
+                cleaner = bufferClass.getMethod("cleaner");
+                cleaner.setAccessible(true);
+                clean = cleaner.getReturnType().getMethod("clean");
+                clean.setAccessible(true);
+            } catch (final Throwable ignore) {
+                cleaner = null;
+                clean = null;
+            }
+            this.cleaner = cleaner;
+            this.clean = clean;
+        }
+
+        @Override
+        void unmapImp(final MappedByteBuffer buffer) {
+            if (cleaner == null) {
+                return;
+            }
+            try {
+                final Object c = cleaner.invoke(buffer);
+                if (c != null) {
+                    clean.invoke(c);
+                }
+            } catch (final Exception ignore) {
+                // leave the buffer to the garbage collector
+            }
+        }
+    }
+
+    private static class UnmapperJDK9 extends Unmapper {
+        private final Unsafe unsafe;
+
+        UnmapperJDK9(final Unsafe unsafe) {
+            this.unsafe = unsafe;
+        }
+
+        // Unsafe.invokeCleaner() replaces DirectByteBuffer.cleaner() from JDK 9,
+        // as sun.misc.Cleaner is gone and the internal one is not accessible.
+        @Override
+        void unmapImp(final MappedByteBuffer buffer) {
+            unsafe.invokeCleaner(buffer);
+        }
+    }
+}
@@ -2,6 +2,11 @@ package net.openhft.internal;
 
 import org.jetbrains.annotations.NotNull;
 
+/**
+ * Arithmetic of the hash functions. This is the Java 7 version, which probes for {@code
+ * Math.multiplyHigh()} at runtime; the multi-release JAR has Java 9 and Java 18 versions, which
+ * call the best intrinsic of their runtime directly.
+ */
 @SuppressWarnings("Since15")
 public class Maths {
     @NotNull
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2014 Higher Frequency Trading http://www.higherfrequencytrading.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.openhft.internal;
+
+import net.openhft.access.Access;
+import net.openhft.access.ByteArrayAccess;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import sun.misc.Unsafe;
+
+import java.lang.reflect.Field;
+
+/**
+ * Helpers for hashing the UTF-8 encoding of {@code CharSequence}s without encoding them into
+ * a separate array.
+ */
+public final class Strings {
+    private static final Unsafe UNSAFE;
+    /**
+     * Offsets of {@code String.value} and {@code String.coder} fields, if {@code String} is
+     * backed by {@code byte[]} (JDK 9+), or -1 otherwise.
+     */
+    private static final long VALUE_OFFSET;
+    private static final long CODER_OFFSET;
+    private static final byte LATIN1 = 0;
+    private static final long ASCII_MASK = 0x8080808080808080L;
+
+    static {
+        final Unsafe unsafe = Unsafes.UNSAFE;
+        long valueOffset = -1;
+        long coderOffset = -1;
+        try {
+            final Field value = String.class.getDeclaredField("value");
+            if (value.getType() == byte[].class) {
+                final long coder = unsafe.objectFieldOffset(String.class.getDeclaredField("coder"));
+                valueOffset = unsafe.objectFieldOffset(value);
+                coderOffset = coder;
+            }
+        } catch (final Throwable ignore) {
+            // no Unsafe, no compact strings, or the layout is unknown
+        }
+        UNSAFE = unsafe;
+        VALUE_OFFSET = valueOffset;
+        CODER_OFFSET = coderOffset;
+    }
+
+    private Strings() {}
+
+    /**
+     * Returns the internal Latin-1 encoded bytes of the given string, if it's a compact string,
+     * or {@code null} otherwise. The returned array must not be modified.
+     */
+    @Nullable
+    public static byte[] latin1Bytes(@NotNull final String s) {
+        if (VALUE_OFFSET < 0 || UNSAFE.getByte(s, CODER_OFFSET) != LATIN1) {
+            return null;
+        }
+        return (byte[]) UNSAFE.getObject(s, VALUE_OFFSET);
+    }
+
+    /**
+     * Returns the index of the first non-ASCII byte in {@code [from, to)} range of the given
+     * array, or {@code to} if all bytes are ASCII.
+     */
+    public static int asciiEnd(@NotNull final byte[] b, int from, final int to) {
+        final Access<byte[]> access = ByteArrayAccess.instance();
+        final long base = ByteArrayAccess.baseOffset();
+        for (; from + 8 <= to; from += 8) {
+            if ((access.i64(b, base + from) & ASCII_MASK) != 0) {
+                break;
+            }
+        }
+        for (; from < to; from++) {
+            if (b[from] < 0) {
+                return from;
+            }
+        }
+        return to;
+    }
+
+    /**
+     * Returns the index of the first non-ASCII char in {@code [from, to)} range of the given
+     * sequence, or {@code to} if all chars are ASCII.
+     */
+    public static int asciiEnd(@NotNull final CharSequence s, int from, final int to) {
+        for (; from < to; from++) {
+            if (s.charAt(from) >= 0x80) {
+                return from;
+            }
+        }
+        return to;
+    }
+}
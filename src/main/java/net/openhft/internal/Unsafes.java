@@ -0,0 +1,136 @@
+/*
+ * Copyright 2014 Higher Frequency Trading http://www.higherfrequencytrading.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.openhft.internal;
+
+import org.jetbrains.annotations.Nullable;
+import sun.misc.Unsafe;
+
+import java.lang.reflect.Field;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.util.Locale;
+import java.util.logging.Logger;
+
+/**
+ * The single lookup of {@code sun.misc.Unsafe}, shared by all classes of the library using it.
+ *
+ * <p>{@code Unsafe} is used only if it's accessible, its memory reads actually work (they could
+ * be denied by the runtime, e.g. by {@code --sun-misc-unsafe-memory-access=deny}), the address
+ * of direct buffers could be read by it, and the {@value #ACCESS_PROPERTY} system property
+ * doesn't exclude it. Otherwise {@link #UNSAFE} is {@code null}, and the library works without
+ * {@code Unsafe}.
+ */
+public final class Unsafes {
+    /**
+     * The system property limiting the strategy of reading byte arrays to the given one and the
+     * slower ones: {@code unsafe}, {@code varhandle} or {@code plain}, in any case.
+     */
+    public static final String ACCESS_PROPERTY = "net.openhft.hash.access";
+
+    /**
+     * The value of {@link #ACCESS_PROPERTY} in lower case, i.e. {@code "unsafe"}, {@code
+     * "varhandle"} or {@code "plain"}, or {@code null} if it's not set, not readable or not one
+     * of these values.
+     */
+    @Nullable
+    public static final String ACCESS = parseAccess(accessProperty());
+
+    /**
+     * The {@code Unsafe} instance, or {@code null} if it's not available or not allowed.
+     */
+    @Nullable
+    public static final Unsafe UNSAFE;
+
+    /**
+     * The offset of the {@code Buffer.address} field for {@link #UNSAFE}, or -1 if it's {@code
+     * null}.
+     */
+    public static final long BUFFER_ADDRESS;
+
+    static {
+        Unsafe unsafe = ACCESS == null || "unsafe".equals(ACCESS) ? theUnsafe() : null;
+        long bufferAddress = -1;
+        try {
+            if (unsafe != null) {
+                bufferAddress = unsafe.objectFieldOffset(Buffer.class.getDeclaredField("address"));
+                if (!readsMemory(unsafe, bufferAddress)) {
+                    unsafe = null;
+                }
+            }
+        } catch (final Throwable ignore) {
+            // no Buffer.address field, or its offset is not accessible
+            unsafe = null;
+        }
+        UNSAFE = unsafe;
+        BUFFER_ADDRESS = unsafe != null ? bufferAddress : -1;
+    }
+
+    private Unsafes() {}
+
+    private static String accessProperty() {
+        try {
+            return System.getProperty(ACCESS_PROPERTY);
+        } catch (final SecurityException ignore) {
+            return null;
+        }
+    }
+
+    static String parseAccess(@Nullable final String value) { // package-private for tests
+        if (value == null) {
+            return null;
+        }
+        final String access = value.trim().toLowerCase(Locale.ROOT);
+        if (!"unsafe".equals(access) && !"varhandle".equals(access) && !"plain".equals(access)) {
+            // throwing from the static initializer would make the whole library unusable
+            Logger.getLogger(Unsafes.class.getName()).warning(ACCESS_PROPERTY
+                    + " should be one of unsafe, varhandle or plain, '" + value
+                    + "' is ignored");
+            return null;
+        }
+        return access;
+    }
+
+    /**
+     * Returns the {@code Unsafe} instance, regardless of {@link #ACCESS_PROPERTY} and of whether
+     * its memory reads work, or {@code null} if it's not accessible.
+     */
+    @Nullable
+    static Unsafe theUnsafe() {
+        try {
+            final Field theUnsafe = Unsafe.class.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+            return (Unsafe) theUnsafe.get(null);
+        } catch (final Throwable ignore) {
+            // no Unsafe
+            return null;
+        }
+    }
+
+    private static boolean readsMemory(final Unsafe unsafe, final long bufferAddress) {
+        try {
+            final byte[] probe = {1, 1, 1, 1, 1, 1, 1, 1};
+            if (unsafe.getLong(probe, (long) unsafe.arrayBaseOffset(byte[].class)) != 0x0101010101010101L) {
+                return false;
+            }
+            final ByteBuffer buffer = ByteBuffer.allocateDirect(1).put(0, (byte) 42);
+            return unsafe.getByte(null, unsafe.getLong(buffer, bufferAddress)) == 42;
+        } catch (final Throwable ignore) {
+            // the access is denied
+            return false;
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package net.openhft.internal;
+
+/**
+ * The Java 18+ layer of {@code Maths}: the high half of the unsigned product is computed by {@link
+ * Math#unsignedMultiplyHigh(long, long)}, which the JIT compiles to a single unsigned multiply
+ * instead of the signed one and the sign corrections.
+ */
+public class Maths {
+    public static long unsignedLongMulXorFold(final long lhs, final long rhs) {
+        final long upper = Math.unsignedMultiplyHigh(lhs, rhs);
+        final long lower = lhs * rhs;
+        return lower ^ upper;
+    }
+}
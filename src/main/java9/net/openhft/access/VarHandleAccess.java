@@ -0,0 +1,105 @@
+/*
+ * Copyright 2014 Higher Frequency Trading http://www.higherfrequencytrading.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.openhft.access;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+
+/**
+ * Reads of byte arrays by byte array view {@code VarHandle}s, which the JIT compiles to single
+ * (byte-reversing, if needed) loads, like the reads of {@code Unsafe}, but with bounds checks.
+ * Offsets are array indexes.
+ *
+ * <p>This class is only present in the Java 9+ layer of the multi-release JAR, and is loaded
+ * reflectively by {@link ByteArrayAccess}.
+ */
+final class VarHandleAccess extends Access<byte[]> {
+    private static final VarHandle LONGS = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final VarHandle INTS = MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private static final Access<byte[]> INSTANCE = new VarHandleAccess();
+    private static final Access<byte[]> NATIVE_ORDER_INSTANCE =
+            ByteOrder.nativeOrder() == ByteOrder.LITTLE_ENDIAN ? INSTANCE : new BigEndian();
+
+    static Access<byte[]> instance() {
+        return INSTANCE;
+    }
+
+    static Access<byte[]> nativeOrderInstance() {
+        return NATIVE_ORDER_INSTANCE;
+    }
+
+    private VarHandleAccess() {}
+
+    @Override
+    public long getLong(final byte[] input, final long offset) {
+        return (long) LONGS.get(input, (int) offset);
+    }
+
+    @Override
+    public void getLongs(final byte[] input, final long offset, final long[] dst,
+                         final int dstOff, final int count) {
+        final int off = (int) offset;
+        for (int i = 0; i < count; i++) {
+            dst[dstOff + i] = (long) LONGS.get(input, off + (i << 3));
+        }
+    }
+
+    @Override
+    public long getUnsignedInt(final byte[] input, final long offset) {
+        return (int) INTS.get(input, (int) offset) & 0xFFFFFFFFL;
+    }
+
+    @Override
+    public int getInt(final byte[] input, final long offset) {
+        return (int) INTS.get(input, (int) offset);
+    }
+
+    @Override
+    public int getByte(final byte[] input, final long offset) {
+        return input[(int) offset];
+    }
+
+    /**
+     * The native-order reads on big-endian platforms.
+     */
+    private static final class BigEndian extends Access<byte[]> {
+        private static final VarHandle LONGS = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+        private static final VarHandle INTS = MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.BIG_ENDIAN);
+
+        @Override
+        public long getLong(final byte[] input, final long offset) {
+            return (long) LONGS.get(input, (int) offset);
+        }
+
+        @Override
+        public long getUnsignedInt(final byte[] input, final long offset) {
+            return (int) INTS.get(input, (int) offset) & 0xFFFFFFFFL;
+        }
+
+        @Override
+        public int getInt(final byte[] input, final long offset) {
+            return (int) INTS.get(input, (int) offset);
+        }
+
+        @Override
+        public int getByte(final byte[] input, final long offset) {
+            return input[(int) offset];
+        }
+    }
+}
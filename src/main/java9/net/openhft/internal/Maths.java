@@ -0,0 +1,16 @@
+package net.openhft.internal;
+
+/**
+ * The Java 9+ layer of {@code Maths}: the high half of the unsigned product is computed by {@link
+ * Math#multiplyHigh(long, long)}, corrected for the signs of the operands, with no runtime probe
+ * and no virtual call.
+ */
+public class Maths {
+    public static long unsignedLongMulXorFold(final long lhs, final long rhs) {
+        // Math.multiplyHigh() is intrinsified from JDK 10. But JDK 9 is out of life, we always prefer
+        // this version to the scalar one.
+        final long upper = Math.multiplyHigh(lhs, rhs) + ((lhs >> 63) & rhs) + ((rhs >> 63) & lhs);
+        final long lower = lhs * rhs;
+        return lower ^ upper;
+    }
+}
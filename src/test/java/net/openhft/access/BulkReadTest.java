@@ -0,0 +1,88 @@
+/*
+ * Copyright 2014 Higher Frequency Trading http://www.higherfrequencytrading.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.openhft.access;
+
+import net.openhft.internal.Unsafes;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import static java.nio.ByteOrder.BIG_ENDIAN;
+import static java.nio.ByteOrder.LITTLE_ENDIAN;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assume.assumeTrue;
+
+public class BulkReadTest {
+    private static final byte[] TABLE = new byte[256];
+
+    static {
+        new Random(3).nextBytes(TABLE);
+    }
+
+    @Test
+    public void testByteArrayAccess() {
+        byte[] data = data();
+        long base = ByteArrayAccess.baseOffset();
+        test(data, ByteArrayAccess.instance(), base);
+        test(data, ByteArrayAccess.nativeOrderInstance(), base);
+        test(data, PlainByteArrayAccess.INSTANCE, 0);
+        test(data, Access.xor(ByteArrayAccess.instance(), 0x0123456789ABCDEFL, 5), base);
+    }
+
+    @Test
+    public void testUnsafe() {
+        assumeTrue(Unsafes.UNSAFE != null);
+        byte[] data = data();
+        long base = UnsafeAccess.baseOffset();
+        test(data, UnsafeAccess.instance(), base);
+        test(data, UnsafeAccess.nativeOrderInstance(), base);
+        test(data, UnsafeAccess.reversedInstance(), base);
+        test(data, Access.reverse(UnsafeAccess.instance()), base);
+        test(data, Access.lowerCaseAscii(UnsafeAccess.instance()), base);
+        test(data, Access.xor(UnsafeAccess.instance(), 0x0123456789ABCDEFL, 5), base);
+        test(data, Access.map(UnsafeAccess.instance(), TABLE), base);
+    }
+
+    @Test
+    public void testByteBuffer() {
+        ByteBuffer le = ByteBuffer.wrap(data()).asReadOnlyBuffer().order(LITTLE_ENDIAN);
+        ByteBuffer be = ByteBuffer.wrap(data()).asReadOnlyBuffer().order(BIG_ENDIAN);
+        test(le, ByteBufferAccess.instance(le), 0);
+        test(be, ByteBufferAccess.instance(be), 0);
+        test(le, Access.xor(ByteBufferAccess.instance(le), -1L, 0), 0);
+    }
+
+    private static byte[] data() {
+        byte[] data = new byte[100];
+        new Random(1).nextBytes(data);
+        return data;
+    }
+
+    private static <T> void test(T input, Access<T> access, long base) {
+        long[] dst = new long[12];
+        for (int off = 0; off < 8; off++) {
+            for (int count = 0; count <= 10; count++) {
+                access.i64s(input, base + off, dst, 1, count);
+                for (int i = 0; i < count; i++) {
+                    assertEquals("off " + off + ", value " + i,
+                            access.i64(input, base + off + 8 * i), dst[1 + i]);
+                }
+            }
+        }
+    }
+}
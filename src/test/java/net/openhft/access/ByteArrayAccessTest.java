@@ -0,0 +1,90 @@
+/*
+ * Copyright 2014 Higher Frequency Trading http://www.higherfrequencytrading.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.openhft.access;
+
+import net.openhft.internal.Unsafes;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Random;
+
+import static java.nio.ByteOrder.LITTLE_ENDIAN;
+import static java.nio.ByteOrder.nativeOrder;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assume.assumeTrue;
+
+public class ByteArrayAccessTest {
+    @Test
+    public void testStrategy() {
+        final ByteArrayAccess.Strategy strategy = ByteArrayAccess.strategy();
+        if ("plain".equals(Unsafes.ACCESS)) {
+            assertEquals(ByteArrayAccess.Strategy.PLAIN, strategy);
+        } else if ("varhandle".equals(Unsafes.ACCESS)) {
+            assertEquals(ByteArrayAccess.Strategy.VAR_HANDLE, strategy);
+        } else {
+            assertEquals(Unsafes.UNSAFE != null, strategy == ByteArrayAccess.Strategy.UNSAFE);
+        }
+        assertEquals(strategy == ByteArrayAccess.Strategy.UNSAFE, ByteArrayAccess.readsAddresses());
+        if (nativeOrder() == LITTLE_ENDIAN) {
+            assertSame(ByteArrayAccess.instance(), ByteArrayAccess.nativeOrderInstance());
+        }
+    }
+
+    @Test
+    public void testReads() {
+        final byte[] b = new byte[32];
+        new Random(42).nextBytes(b);
+        assertReads(b, ByteArrayAccess.instance(), ByteArrayAccess.baseOffset(), LITTLE_ENDIAN);
+        assertReads(b, ByteArrayAccess.nativeOrderInstance(), ByteArrayAccess.baseOffset(), nativeOrder());
+        assertReads(b, PlainByteArrayAccess.INSTANCE, 0, LITTLE_ENDIAN);
+    }
+
+    @Test
+    public void testBaseOffsetOfBuffer() {
+        final byte[] b = new byte[32];
+        new Random(43).nextBytes(b);
+        final ByteBuffer slice = ((ByteBuffer) ByteBuffer.wrap(b).position(5)).slice();
+        assertEquals(ByteArrayAccess.baseOffset() + 5, ByteArrayAccess.baseOffset(slice));
+        assertEquals(slice.order(LITTLE_ENDIAN).getLong(3),
+                ByteArrayAccess.instance().getLong(slice.array(), ByteArrayAccess.baseOffset(slice) + 3));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testAddressWithoutUnsafe() {
+        assumeTrue(!ByteArrayAccess.readsAddresses());
+        ByteArrayAccess.address(ByteBuffer.allocateDirect(8));
+    }
+
+    private static void assertReads(byte[] b, Access<byte[]> access, long base, ByteOrder order) {
+        final ByteBuffer buffer = ByteBuffer.wrap(b).order(order);
+        for (int i = 0; i <= b.length - 8; i++) {
+            final long off = base + i;
+            assertEquals(buffer.getLong(i), access.getLong(b, off));
+            assertEquals(buffer.getInt(i), access.getInt(b, off));
+            assertEquals(buffer.getInt(i) & 0xFFFFFFFFL, access.getUnsignedInt(b, off));
+            assertEquals(b[i], access.getByte(b, off));
+            assertEquals(b[i] & 0xFF, access.getUnsignedByte(b, off));
+        }
+        final long[] longs = new long[3];
+        access.getLongs(b, base + 1, longs, 0, 3);
+        for (int i = 0; i < 3; i++) {
+            assertEquals(buffer.getLong(1 + 8 * i), longs[i]);
+        }
+    }
+}
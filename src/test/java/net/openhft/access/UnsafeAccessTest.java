@@ -1,15 +1,27 @@
 package net.openhft.access;
 
 import net.openhft.internal.Primitives;
+import net.openhft.internal.Unsafes;
 import org.junit.Assert;
+import org.junit.Before;
 import org.junit.Test;
 
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Random;
+
 import static java.nio.ByteOrder.*;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assume.assumeTrue;
 
 public class UnsafeAccessTest {
-    public Access<byte[]> unsafe = UnsafeAccess.instance();
+    public Access<byte[]> unsafe;
+
+    @Before
+    public void setUp() {
+        assumeTrue(Unsafes.UNSAFE != null);
+        unsafe = UnsafeAccess.instance();
+    }
 
     @Test
     public void testUnsafeAccess() {
@@ -43,4 +55,25 @@ public class UnsafeAccessTest {
             assertEquals(Primitives.unsignedByte(0x5D), unsafe.getUnsignedByte(b, UnsafeAccess.baseOffset() + 1));
         }
     }
+
+    @Test
+    public void testByteOrders() {
+        final byte[] b = new byte[16];
+        new Random(42).nextBytes(b);
+        final ByteOrder reverse = nativeOrder() == LITTLE_ENDIAN ? BIG_ENDIAN : LITTLE_ENDIAN;
+        assertReads(b, UnsafeAccess.instance(), LITTLE_ENDIAN);
+        assertReads(b, UnsafeAccess.nativeOrderInstance(), nativeOrder());
+        assertReads(b, UnsafeAccess.reversedInstance(), reverse);
+    }
+
+    private static void assertReads(byte[] b, Access<byte[]> access, ByteOrder order) {
+        final ByteBuffer buffer = ByteBuffer.wrap(b).order(order);
+        for (int i = 0; i <= 8; i++) {
+            final long off = UnsafeAccess.baseOffset() + i;
+            assertEquals(buffer.getLong(i), access.getLong(b, off));
+            assertEquals(buffer.getInt(i), access.getInt(b, off));
+            assertEquals(buffer.getInt(i) & 0xFFFFFFFFL, access.getUnsignedInt(b, off));
+            assertEquals(b[i], access.getByte(b, off));
+        }
+    }
 }
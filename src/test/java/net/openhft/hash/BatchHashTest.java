@@ -0,0 +1,108 @@
+/*
+ * Copyright 2014 Higher Frequency Trading http://www.higherfrequencytrading.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.openhft.hash;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+public class BatchHashTest {
+    private static final HashFunction[] FUNCTIONS = {Hash.xx(), Hash.xx3()};
+
+    private final Random r = new Random(1);
+    private final byte[] data = new byte[20000];
+    private final int[] offsets = new int[500];
+    private final int[] lengths = new int[500];
+
+    public BatchHashTest() {
+        r.nextBytes(data);
+        for (int i = 0; i < offsets.length; i++) {
+            lengths[i] = i < 300 ? i % 20 : r.nextInt(300);
+            offsets[i] = r.nextInt(data.length - lengths[i] + 1);
+        }
+    }
+
+    private void check(HashFunction f, long[] out) {
+        for (int i = 0; i < offsets.length; i++) {
+            assertEquals("key " + i, f.hashBytes(data, offsets[i], lengths[i]), out[i]);
+        }
+    }
+
+    @Test
+    public void testArray() {
+        for (HashFunction f : FUNCTIONS) {
+            long[] out = new long[offsets.length];
+            f.hashBatch(data, offsets, lengths, out);
+            check(f, out);
+        }
+    }
+
+    @Test
+    public void testBuffers() {
+        ByteBuffer direct = ByteBuffer.allocateDirect(data.length);
+        direct.put(data);
+        ByteBuffer heap = ByteBuffer.wrap(data);
+        for (HashFunction f : FUNCTIONS) {
+            for (ByteBuffer bb : new ByteBuffer[] {heap, heap.asReadOnlyBuffer(), direct}) {
+                long[] out = new long[offsets.length];
+                f.hashBatch(bb, offsets, lengths, out);
+                check(f, out);
+            }
+        }
+    }
+
+    @Test
+    public void testFixedLength() {
+        ByteBuffer direct = ByteBuffer.allocateDirect(data.length);
+        direct.put(data);
+        for (HashFunction f : FUNCTIONS) {
+            for (int keyLength = 0; keyLength <= 40; keyLength++) {
+                for (int count : new int[] {0, 1, 3, 4, 5, 7, 8, 13, 1024 / (keyLength + 1)}) {
+                    int off = keyLength % 5;
+                    long[] out = new long[count + 1];
+                    f.hashBatch(data, off, keyLength, count, out);
+                    long[] directOut = new long[count];
+                    f.hashBatch(direct, off, keyLength, count, directOut);
+                    for (int i = 0; i < count; i++) {
+                        long expected = f.hashBytes(data, off + i * keyLength, keyLength);
+                        assertEquals("len " + keyLength + " key " + i, expected, out[i]);
+                        assertEquals("len " + keyLength + " key " + i, expected, directOut[i]);
+                    }
+                    assertEquals(0, out[count]);
+                }
+            }
+        }
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testFixedLengthBounds() {
+        Hash.xx3().hashBatch(new byte[63], 0, 16, 4, new long[4]);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testBounds() {
+        Hash.xx3().hashBatch(new byte[10], new int[] {0, 8}, new int[] {4, 4}, new long[2]);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testShortOut() {
+        Hash.xx3().hashBatch(new byte[10], new int[] {0, 4}, new int[] {4, 4}, new long[1]);
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2014 Higher Frequency Trading http://www.higherfrequencytrading.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.openhft.hash;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.Random;
+
+import static java.nio.ByteOrder.LITTLE_ENDIAN;
+import static org.junit.Assert.assertEquals;
+
+public class CompositeHashTest {
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final HashFunction[] FUNCTIONS = {Hash.xx(), Hash.xx3(), Hash.xx3().forFixedLength(20)};
+
+    @Test
+    public void testTwoLongs() {
+        Random r = new Random(1);
+        for (HashFunction f : FUNCTIONS) {
+            for (int i = 0; i < 100; i++) {
+                long a = r.nextLong();
+                long b = r.nextLong();
+                byte[] key = ByteBuffer.allocate(16).order(LITTLE_ENDIAN).putLong(a).putLong(b).array();
+                assertEquals(f.hashBytes(key), f.hash(a, b));
+            }
+        }
+    }
+
+    @Test
+    public void testLongAndBytes() {
+        Random r = new Random(2);
+        for (HashFunction f : FUNCTIONS) {
+            // every length class of XXH3, and the long input loop within and beyond one block
+            for (int len = 0; len < 2200; len += len < 300 ? 1 : 37) {
+                long prefix = r.nextLong();
+                byte[] data = new byte[len + 3];
+                r.nextBytes(data);
+                byte[] key = ByteBuffer.allocate(8 + len).order(LITTLE_ENDIAN)
+                        .putLong(prefix).put(data, 3, len).array();
+                assertEquals("len " + len, f.hashBytes(key), f.hash(prefix, data, 3, len));
+            }
+        }
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testLongAndBytesBounds() {
+        Hash.xx().hash(0L, new byte[4], 2, 3);
+    }
+
+    @Test
+    public void testTwoLongsAndChars() {
+        Random r = new Random(3);
+        for (HashFunction f : FUNCTIONS) {
+            for (int len = 0; len < 2200; len += len < 260 ? 1 : 37) {
+                StringBuilder ascii = new StringBuilder();
+                StringBuilder any = new StringBuilder();
+                for (int i = 0; i < len; i++) {
+                    ascii.append((char) r.nextInt(0x80));
+                    any.append((char) (r.nextInt(4) == 0 ? 0x80 + r.nextInt(0xD000) : r.nextInt(0x80)));
+                }
+                for (String s : new String[] {ascii.toString(), any.toString()}) {
+                    long a = r.nextLong();
+                    long b = r.nextLong();
+                    byte[] utf8 = s.getBytes(UTF_8);
+                    byte[] key = ByteBuffer.allocate(16 + utf8.length).order(LITTLE_ENDIAN)
+                            .putLong(a).putLong(b).put(utf8).array();
+                    long expected = f.hashBytes(key);
+                    assertEquals(s, expected, f.hash(a, b, s));
+                    assertEquals(s, expected, f.hash(a, b, new StringBuilder(s)));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testStatePrimitives() {
+        Random r = new Random(4);
+        for (HashFunction f : FUNCTIONS) {
+            HashState state = f.newState();
+            ByteBuffer all = ByteBuffer.allocate(5000).order(LITTLE_ENDIAN);
+            for (int i = 0; i < 300; i++) {
+                if (r.nextBoolean()) {
+                    long v = r.nextLong();
+                    state.updateLong(v);
+                    all.putLong(v);
+                } else {
+                    int v = r.nextInt();
+                    state.updateInt(v);
+                    all.putInt(v);
+                }
+                assertEquals(f.hashBytes(all.array(), 0, all.position()), state.hash());
+            }
+        }
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright 2014 Higher Frequency Trading http://www.higherfrequencytrading.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.openhft.hash;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.List;
+
+import static java.nio.ByteOrder.LITTLE_ENDIAN;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.fail;
+
+public class FieldHashTest {
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final HashFunction[] FUNCTIONS = {Hash.xx(), Hash.xx3()};
+
+    static class Person {
+        static int instances;
+        String givenName, surName;
+        int salary;
+        transient int cachedHash;
+
+        Person(String givenName, String surName, int salary) {
+            this.givenName = givenName;
+            this.surName = surName;
+            this.salary = salary;
+        }
+    }
+
+    static class Base {
+        long id = 0x0102030405060708L;
+        boolean active = true;
+    }
+
+    static class AllTypes extends Base {
+        byte b = -2;
+        char c = 'Ж';
+        short s = -300;
+        int i = 123456789;
+        float f = 1.5f;
+        long l = -1L;
+        double d = Math.PI;
+        String str = "héllo";
+        String nullStr = null;
+    }
+
+    static class Nested {
+        List<String> names;
+    }
+
+    private static void putString(ByteBuffer bb, String s) {
+        if (s == null) {
+            bb.putInt(-1);
+        } else {
+            byte[] utf8 = s.getBytes(UTF_8);
+            bb.putInt(s.length()).put(utf8);
+        }
+    }
+
+    private static byte[] serialize(Person p) {
+        ByteBuffer bb = ByteBuffer.allocate(100).order(LITTLE_ENDIAN);
+        putString(bb, p.givenName);
+        putString(bb, p.surName);
+        bb.putInt(p.salary);
+        byte[] result = new byte[bb.position()];
+        System.arraycopy(bb.array(), 0, result, 0, result.length);
+        return result;
+    }
+
+    private static byte[] serialize(AllTypes o) {
+        ByteBuffer bb = ByteBuffer.allocate(100).order(LITTLE_ENDIAN);
+        bb.putLong(o.id).put((byte) (o.active ? 1 : 0));
+        bb.put(o.b).putChar(o.c).putShort(o.s).putInt(o.i).putFloat(o.f).putLong(o.l).putDouble(o.d);
+        putString(bb, o.str);
+        putString(bb, o.nullStr);
+        byte[] result = new byte[bb.position()];
+        System.arraycopy(bb.array(), 0, result, 0, result.length);
+        return result;
+    }
+
+    @Test
+    public void testPerson() {
+        for (HashFunction f : FUNCTIONS) {
+            Person p = new Person("John", "Smith", 100000);
+            assertEquals(f.hashBytes(serialize(p)), f.hashFields(p));
+            p.cachedHash = 42;
+            assertEquals(f.hashBytes(serialize(p)), f.hashFields(p));
+            assertNotEquals(f.hashFields(new Person("Jo", "hnSmith", 100000)), f.hashFields(p));
+            p.surName = null;
+            assertEquals(f.hashBytes(serialize(p)), f.hashFields(p));
+        }
+    }
+
+    @Test
+    public void testAllTypes() {
+        AllTypes o = new AllTypes();
+        for (HashFunction f : FUNCTIONS) {
+            assertEquals(f.hashBytes(serialize(o)), f.hashFields(o));
+        }
+    }
+
+    @Test
+    public void testGetters() {
+        AllTypes o = new AllTypes();
+        for (HashFunction f : FUNCTIONS) {
+            HashState state = f.newState();
+            new FieldLayout(AllTypes.class, true).update(o, state);
+            assertEquals(f.hashBytes(serialize(o)), state.hash());
+        }
+    }
+
+    @Test
+    public void testReusedState() {
+        for (HashFunction f : FUNCTIONS) {
+            HashState state = f.newState();
+            Person p = new Person("Ann", "Lee", 7);
+            state.updateFields(p);
+            state.updateFields(p);
+            byte[] once = serialize(p);
+            byte[] twice = new byte[once.length * 2];
+            System.arraycopy(once, 0, twice, 0, once.length);
+            System.arraycopy(once, 0, twice, once.length, once.length);
+            assertEquals(f.hashBytes(twice), state.hash());
+        }
+    }
+
+    @Test
+    public void testRejectedObjectDoesNotAffectNextHash() {
+        for (HashFunction f : FUNCTIONS) {
+            Person p = new Person("Ann", "Lee", 7);
+            long expected = f.hashFields(p);
+            try {
+                f.hashFields(new Nested());
+                fail();
+            } catch (IllegalArgumentException expectedException) {
+                // the thread's state is released and reset for the next call
+            }
+            assertEquals(expected, f.hashFields(p));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNestedObjectsAreRejected() {
+        Hash.xx3().hashFields(new Nested());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testArraysAreRejected() {
+        Hash.xx3().hashFields(new int[1]);
+    }
+}
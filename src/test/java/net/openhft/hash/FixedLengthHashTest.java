@@ -0,0 +1,53 @@
+/*
+ * Copyright 2014 Higher Frequency Trading http://www.higherfrequencytrading.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.openhft.hash;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+public class FixedLengthHashTest {
+    private static final HashFunction[] FUNCTIONS = {Hash.xx(), Hash.xx3()};
+
+    @Test
+    public void testFixedLength() {
+        Random r = new Random(1);
+        byte[] data = new byte[400];
+        for (HashFunction f : FUNCTIONS) {
+            for (int len = 0; len <= 300; len++) {
+                HashFunction fixed = f.forFixedLength(len);
+                for (int i = 0; i < 5; i++) {
+                    r.nextBytes(data);
+                    assertEquals("len " + len, f.hashBytes(data, 3, len), fixed.hashBytes(data, 3, len));
+                    HashFunctionTest.test(fixed, Arrays.copyOf(data, len), f.hashBytes(data, 0, len));
+                }
+                // other lengths fall back to the generic path
+                assertEquals(f.hashBytes(data, 0, len + 1), fixed.hashBytes(data, 0, len + 1));
+                assertEquals(f.hashUtf8("key"), fixed.hashUtf8("key"));
+                assertEquals(f.hash(1, 2), fixed.hash(1, 2));
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeLength() {
+        Hash.xx3().forFixedLength(-1);
+    }
+}
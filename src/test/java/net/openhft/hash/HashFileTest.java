@@ -0,0 +1,92 @@
+/*
+ * Copyright 2014 Higher Frequency Trading http://www.higherfrequencytrading.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.openhft.hash;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+public class HashFileTest {
+    private static final HashFunction[] FUNCTIONS = {Hash.xx(), Hash.xx3()};
+
+    private static File file;
+    private static byte[] data;
+
+    @BeforeClass
+    public static void createFile() throws IOException {
+        data = new byte[100003];
+        new Random(42).nextBytes(data);
+        file = File.createTempFile("hash-file", ".bin");
+        FileOutputStream out = new FileOutputStream(file);
+        try {
+            out.write(data);
+        } finally {
+            out.close();
+        }
+    }
+
+    @AfterClass
+    public static void deleteFile() {
+        file.delete();
+    }
+
+    @Test
+    public void testHashPath() throws IOException {
+        for (HashFunction f : FUNCTIONS) {
+            assertEquals(f.hashBytes(data), f.hashFile(file.toPath()));
+        }
+    }
+
+    @Test
+    public void testHashRegionByWindows() throws IOException {
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            FileChannel channel = raf.getChannel();
+            for (HashFunction f : FUNCTIONS) {
+                for (int window : new int[] {1000, 4096, 99999, 1 << 20}) {
+                    for (int[] region : new int[][] {{0, data.length}, {1, 240}, {7, 5000}, {333, 99000}, {data.length, 0}}) {
+                        int pos = region[0], len = region[1];
+                        assertEquals("window " + window + " pos " + pos + " len " + len,
+                                f.hashBytes(data, pos, len), f.hashFile(channel, pos, len, window));
+                    }
+                }
+                assertEquals(0, channel.position());
+            }
+        } finally {
+            raf.close();
+        }
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testRegionOutOfFile() throws IOException {
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            Hash.xx3().hashFile(raf.getChannel(), 1, data.length);
+        } finally {
+            raf.close();
+        }
+    }
+}
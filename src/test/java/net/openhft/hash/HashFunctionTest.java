@@ -16,11 +16,14 @@
 
 package net.openhft.hash;
 
+import org.junit.Test;
+
 import java.nio.Buffer;
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 
 import static java.nio.ByteOrder.*;
-import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.*;
 
 public class HashFunctionTest {
     public static void test(HashFunction f, byte[] data, long eh) {
@@ -28,6 +31,26 @@ public class HashFunctionTest {
         ByteBuffer bb = ByteBuffer.wrap(data).order(nativeOrder());
         testArrays(f, data, eh, len);
         testByteBuffers(f, eh, len, bb);
+        testState(f, data, eh, len);
+        testSegments(f, data, eh, len);
+    }
+
+    @Test
+    public void testScratchStates() {
+        HashFunction f = Hash.xx3();
+        HashFunction.Scratch scratch = f.scratch();
+        scratch.state.updateLong(1);
+        HashFunction.Scratch nested = f.scratch();
+        assertNotSame("nested call gets a new state", scratch.state, nested.state);
+        assertEquals("new state is empty", f.hashBytes(new byte[0]), nested.state.hash());
+        nested.release();
+        scratch.release();
+
+        HashFunction.Scratch reused = f.scratch();
+        assertSame("released state is reused", scratch.state, reused.state);
+        assertEquals("reused state is reset", f.hashBytes(new byte[0]), reused.state.hash());
+        reused.release();
+        assertNotSame("states are per function", scratch.state, Hash.xx().scratch().state);
     }
 
     private static void testArrays(HashFunction f, byte[] data, long eh, int len) {
@@ -56,5 +79,86 @@ public class HashFunctionTest {
         assertEquals("byte buffer big endian off len", eh, f.hashBytes(bb2, 1, len));
 
         ((Buffer)bb.order(nativeOrder())).clear();
+
+        ByteBuffer direct = ByteBuffer.allocateDirect(len + 2);
+        ((Buffer)direct).position(1);
+        direct.put(bb);
+        ((Buffer)bb).clear();
+        assertEquals("direct byte buffer off len", eh, f.hashBytes(direct, 1, len));
+        ((Buffer)direct).position(1);
+        ((Buffer)direct).limit(len + 1);
+        assertEquals("direct byte buffer", eh, f.hashBytes(direct));
+    }
+
+    private static void testSegments(HashFunction f, byte[] data, long eh, int len) {
+        for (int split : new int[] {0, 1, 63, 100}) {
+            if (split > len) {
+                continue;
+            }
+            int split2 = split + (len - split) / 2;
+            ByteBuffer header = ByteBuffer.allocate(split + 5);
+            ((Buffer)header).position(5);
+            header.put(data, 0, split);
+            ((Buffer)header).position(5);
+            ByteBuffer metadata = ByteBuffer.allocateDirect(split2 - split);
+            metadata.put(data, split, split2 - split);
+            ((Buffer)metadata).flip();
+            ByteBuffer payload = ByteBuffer.wrap(data, split2, len - split2).asReadOnlyBuffer();
+
+            ByteBuffer[] srcs = {ByteBuffer.allocate(3), header, metadata, ByteBuffer.allocate(0), payload};
+            assertEquals("segments split at " + split, eh, f.hashBytes(srcs, 1, 4));
+            assertEquals("segments position unchanged", 5, header.position());
+
+            HashState state = f.newState();
+            state.updateBytes(srcs, 1, 4);
+            assertEquals("state segments split at " + split, eh, state.hash());
+        }
+    }
+
+    private static void testState(HashFunction f, byte[] data, long eh, int len) {
+        HashState state = f.newState();
+        state.updateBytes(data);
+        assertEquals("state whole array", eh, state.hash());
+        assertEquals("state hash is idempotent", eh, state.hash());
+
+        for (int chunk : new int[] {1, 7, 32, 64, 100, 256, 257}) {
+            state.reset();
+            for (int off = 0; off < len; off += chunk) {
+                state.updateBytes(data, off, Math.min(chunk, len - off));
+            }
+            assertEquals("state chunks of " + chunk, eh, state.hash());
+        }
+
+        state.reset();
+        for (byte b : data) {
+            state.updateByte(b);
+        }
+        assertEquals("state single bytes", eh, state.hash());
+
+        state.reset();
+        int half = len / 2;
+        state.updateBytes(ByteBuffer.wrap(data, 0, half).order(BIG_ENDIAN));
+        ByteBuffer direct = ByteBuffer.allocateDirect(len - half);
+        direct.put(data, half, len - half);
+        state.updateBytes(direct, 0, len - half);
+        assertEquals("state heap and direct byte buffers", eh, state.hash());
+
+        state.reset();
+        state.updateBytes(data, 0, half);
+        state.updateBytes(ByteBuffer.wrap(data).asReadOnlyBuffer().order(LITTLE_ENDIAN), half, len - half);
+        assertEquals("state byte buffers", eh, state.hash());
+
+        // read-only buffers are read by the bulk reads of their access
+        int prefix = Math.min(3, len);
+        for (ByteOrder order : new ByteOrder[] {LITTLE_ENDIAN, BIG_ENDIAN}) {
+            state.reset();
+            state.updateBytes(ByteBuffer.wrap(data).asReadOnlyBuffer().order(order));
+            assertEquals("state read-only byte buffer " + order, eh, state.hash());
+
+            state.reset();
+            state.updateBytes(data, 0, prefix);
+            state.updateBytes(ByteBuffer.wrap(data).asReadOnlyBuffer().order(order), prefix, len - prefix);
+            assertEquals("state array and read-only byte buffer " + order, eh, state.hash());
+        }
     }
 }
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2014 Higher Frequency Trading http://www.higherfrequencytrading.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.openhft.hash;
+
+import net.openhft.access.ByteArrayAccess;
+import org.junit.Test;
+
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Hashing loads only the classes of the hashed path, so the first hash in a fresh JVM doesn't
+ * pay for loading and verifying the rest of the library.
+ */
+public class LazyLoadingTest {
+    private static final String[] UNUSED = {
+            "net.openhft.hash.XxHash",
+            "net.openhft.hash.NativeOrderHashFunction",
+            "net.openhft.hash.HashFunction$LowerCase",
+            "net.openhft.hash.XxHash3$State",
+            "net.openhft.hash.XxHash3$FixedLength0",
+            "net.openhft.hash.XxHash3$FixedLength17to240",
+            "net.openhft.access.Access$ReverseAccess",
+            "net.openhft.access.Access$LowerCaseAsciiAccess",
+            "net.openhft.access.Access$XorAccess",
+            "net.openhft.access.Access$MapAccess",
+            "net.openhft.access.AsciiCharSequenceAccess",
+            "net.openhft.access.ByteBufferAccess",
+            "net.openhft.access.PlainByteArrayAccess",
+            "net.openhft.access.UnsafeAccess$ReversedUnsafeAccess",
+    };
+
+    @Test
+    public void testHashBytesLoadsOnlyItsPath() throws Exception {
+        assumeTrue(ByteOrder.nativeOrder() == ByteOrder.LITTLE_ENDIAN);
+        // the isolated loader has no versioned layers, so only Unsafe is as in this JVM
+        assumeTrue(ByteArrayAccess.strategy() == ByteArrayAccess.Strategy.UNSAFE);
+        final RecordingClassLoader loader = new RecordingClassLoader(NativeImageConfigTest.classesDir());
+        final Class<?> hash = Class.forName("net.openhft.hash.Hash", true, loader);
+        final Object xx3 = hash.getMethod("xx3").invoke(null);
+        final Object h = xx3.getClass().getMethod("hashBytes", byte[].class).invoke(xx3, (Object) new byte[1000]);
+        assertEquals(Hash.xx3().hashBytes(new byte[1000]), h);
+
+        final List<String> loaded = new ArrayList<>();
+        for (final String name : UNUSED) {
+            if (loader.loaded.contains(name)) {
+                loaded.add(name);
+            }
+        }
+        assertEquals(new ArrayList<String>(), loaded);
+    }
+}
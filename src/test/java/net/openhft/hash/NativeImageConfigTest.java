@@ -0,0 +1,176 @@
+/*
+ * Copyright 2014 Higher Frequency Trading http://www.higherfrequencytrading.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.openhft.hash;
+
+import net.openhft.access.ByteArrayAccess;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.InputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.Scanner;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+
+public class NativeImageConfigTest {
+    private static final String CONFIG = "META-INF/native-image/net.openhft/zero-allocation-hashing/";
+    private static final String BUILD_TIME = "--initialize-at-build-time=";
+    private static final String[] RUN_TIME = {
+            "net.openhft.internal.Unsafes",
+            "net.openhft.access.UnsafeAccess",
+            "net.openhft.access.ByteArrayAccess",
+    };
+
+    /**
+     * Initializing the build-time classes must not even load the classes which must be
+     * initialized at run time, as they would be initialized at image build time as well.
+     */
+    @Test
+    public void testBuildTimeClassesDontLoadRunTimeOnes() throws Exception {
+        final RecordingClassLoader loader = new RecordingClassLoader(classPath(javaVersion()));
+        for (final String name : buildTimeClasses()) {
+            Class.forName(name, true, loader);
+        }
+        for (final String name : RUN_TIME) {
+            assertFalse(name + " is loaded", loader.loaded.contains(name));
+        }
+    }
+
+    /**
+     * native-image runs on Java 17+, so it loads the classes of the Java 9 layer of the JAR and,
+     * on Java 18+, of the Java 18 one, over the base classes. A nested class of the base layer
+     * isn't used if its outer class is replaced by a versioned layer.
+     */
+    @Test
+    public void testBuildTimeClassesExistInVersionedLayers() throws Exception {
+        for (final int version : new int[] {17, 18}) {
+            final File[] classPath = classPath(version);
+            for (final String name : buildTimeClasses()) {
+                final File layer = layerOf(name, classPath);
+                assertNotNull(name + " doesn't exist on Java " + version, layer);
+                final int nested = name.indexOf('$');
+                if (nested >= 0) {
+                    assertEquals(name + " isn't used on Java " + version,
+                            layerOf(name.substring(0, nested), classPath), layer);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testReflectedClassesExist() throws Exception {
+        final File classes = classesDir();
+        final ClassLoader loader = new URLClassLoader(new URL[] {
+                new File(classes, "META-INF/versions/9/").toURI().toURL(), classes.toURI().toURL()}, null);
+        final Matcher m = Pattern.compile("^  \\{\\s*\"name\": \"([^\"]+)\"", Pattern.MULTILINE)
+                .matcher(resource("reflect-config.json"));
+        int count = 0;
+        while (m.find()) {
+            final String name = m.group(1);
+            if (name.equals("net.openhft.access.VarHandleAccess") && javaVersion() < 9) {
+                continue;
+            }
+            assertNotNull(Class.forName(name, false, loader));
+            count++;
+        }
+        assertFalse(count == 0);
+    }
+
+    @Test
+    public void testSecretWords() {
+        final byte[] secret = XxHash3.Secret.secret;
+        for (int off = 0; off + 8 <= secret.length; off++) {
+            assertEquals(ByteArrayAccess.instance().i64(secret, ByteArrayAccess.baseOffset() + off),
+                    XxHash3.Secret.i64(off));
+            assertEquals(ByteArrayAccess.instance().i32(secret, ByteArrayAccess.baseOffset() + off),
+                    XxHash3.Secret.i32(off));
+        }
+    }
+
+    private static List<String> buildTimeClasses() throws Exception {
+        final Properties properties = new Properties();
+        final InputStream in = NativeImageConfigTest.class.getClassLoader()
+                .getResourceAsStream(CONFIG + "native-image.properties");
+        try {
+            properties.load(in);
+        } finally {
+            in.close();
+        }
+        final List<String> classes = new ArrayList<>();
+        for (final String arg : properties.getProperty("Args").split("\\s+")) {
+            if (arg.startsWith(BUILD_TIME)) {
+                for (final String name : arg.substring(BUILD_TIME.length()).split(",")) {
+                    classes.add(name);
+                }
+            }
+        }
+        assertFalse(classes.isEmpty());
+        return classes;
+    }
+
+    private static String resource(final String name) {
+        final InputStream in = NativeImageConfigTest.class.getClassLoader().getResourceAsStream(CONFIG + name);
+        final Scanner scanner = new Scanner(in, "UTF-8").useDelimiter("\\A");
+        try {
+            return scanner.next();
+        } finally {
+            scanner.close();
+        }
+    }
+
+    /**
+     * Returns the layers of the JAR which the given Java version loads classes from, in order.
+     */
+    private static File[] classPath(final int version) throws Exception {
+        final File classes = classesDir();
+        final List<File> layers = new ArrayList<>();
+        for (final int layer : new int[] {18, 9}) {
+            final File dir = new File(classes, "META-INF/versions/" + layer);
+            if (layer <= version && dir.isDirectory()) {
+                layers.add(dir);
+            }
+        }
+        layers.add(classes);
+        return layers.toArray(new File[0]);
+    }
+
+    private static File layerOf(final String className, final File[] classPath) {
+        for (final File layer : classPath) {
+            if (new File(layer, className.replace('.', '/') + ".class").isFile()) {
+                return layer;
+            }
+        }
+        return null;
+    }
+
+    static File classesDir() throws Exception {
+        return new File(HashFunction.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+    }
+
+    private static int javaVersion() {
+        final String version = System.getProperty("java.specification.version");
+        return version.startsWith("1.") ? Integer.parseInt(version.substring(2)) : Integer.parseInt(version);
+    }
+}
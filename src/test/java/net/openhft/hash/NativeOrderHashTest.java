@@ -0,0 +1,126 @@
+/*
+ * Copyright 2014 Higher Frequency Trading http://www.higherfrequencytrading.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.openhft.hash;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.util.Random;
+
+import static java.nio.ByteOrder.*;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assume.assumeTrue;
+
+public class NativeOrderHashTest {
+    private static final HashFunction[] FUNCTIONS = {Hash.xx(), Hash.xx3(), Hash.xx3().forFixedLength(24)};
+
+    @Test
+    public void testLittleEndianHost() {
+        assumeTrue(nativeOrder() == LITTLE_ENDIAN);
+        for (HashFunction f : FUNCTIONS) {
+            assertSame(f, f.withNativeByteOrder());
+        }
+    }
+
+    @Test
+    public void testSources() {
+        Random r = new Random(7);
+        for (HashFunction f : FUNCTIONS) {
+            // the wrapper is created directly, so it's tested on little-endian hosts as well
+            HashFunction n = NativeOrderHashFunction.of(f);
+            for (int len : new int[] {0, 3, 8, 16, 24, 100, 200, 1000, 5000}) {
+                byte[] data = new byte[len + 5];
+                r.nextBytes(data);
+                long expected = n.hashBytes(data, 5, len);
+                for (ByteBuffer buffer : new ByteBuffer[] {
+                        ByteBuffer.wrap(data), ByteBuffer.allocateDirect(data.length).put(data)}) {
+                    for (ByteOrder order : new ByteOrder[] {LITTLE_ENDIAN, BIG_ENDIAN}) {
+                        buffer.order(order);
+                        assertEquals(expected, n.hashBytes(buffer, 5, len));
+                        assertEquals(expected, n.hashBytes(buffer.asReadOnlyBuffer().order(order), 5, len));
+                    }
+                }
+                long[] out = new long[1];
+                n.hashBatch(data, new int[] {5}, new int[] {len}, out);
+                assertEquals(expected, out[0]);
+                n.hashBatch(data, 5, len, 1, out);
+                assertEquals(expected, out[0]);
+                if (nativeOrder() == LITTLE_ENDIAN) {
+                    assertEquals(f.hashBytes(data, 5, len), expected);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testValuesAndStrings() {
+        for (HashFunction f : FUNCTIONS) {
+            HashFunction n = NativeOrderHashFunction.of(f);
+            assertEquals(f.hash(1, 2), n.hash(1, 2));
+            assertEquals(f.hashUtf8("native"), n.hashUtf8("native"));
+            assertEquals(f.hashUtf8("nätive"), n.hashUtf8("nätive"));
+            assertEquals(f.hashUtf8IgnoreAsciiCase("Native"), n.hashUtf8IgnoreAsciiCase("Native"));
+            assertSame(n, n.withNativeByteOrder());
+        }
+    }
+
+    @Test
+    public void testPrefixedArraysAreLittleEndian() {
+        byte[] data = new byte[100];
+        new Random(11).nextBytes(data);
+        for (HashFunction f : FUNCTIONS) {
+            HashFunction n = NativeOrderHashFunction.of(f);
+            assertEquals(f.hash(42, data, 3, 90), n.hash(42, data, 3, 90));
+        }
+    }
+
+    @Test
+    public void testStreamsBuffersAndFilesAreLittleEndian() throws IOException {
+        byte[] data = new byte[5000];
+        new Random(13).nextBytes(data);
+        ByteBuffer[] srcs = {ByteBuffer.wrap(data, 0, 1000), ByteBuffer.wrap(data, 1000, 4000)};
+        File file = File.createTempFile("native-order", ".bin");
+        try {
+            Files.write(file.toPath(), data);
+            for (HashFunction f : FUNCTIONS) {
+                HashFunction n = NativeOrderHashFunction.of(f);
+                HashState state = n.newState();
+                state.updateBytes(data, 0, 7);
+                state.updateBytes(data, 7, data.length - 7);
+                long expected = f.hashBytes(data);
+                assertEquals(expected, state.hash());
+                assertEquals(expected, n.hashBytes(srcs));
+                FileChannel channel = FileChannel.open(file.toPath());
+                try {
+                    // a window smaller than the file, so it's hashed by a state
+                    assertEquals(expected, n.hashFile(channel, 0, data.length, 4096));
+                    assertEquals(expected, n.hashFile(channel, 0, data.length));
+                } finally {
+                    channel.close();
+                }
+            }
+        } finally {
+            file.delete();
+        }
+    }
+}
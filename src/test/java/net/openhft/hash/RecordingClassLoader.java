@@ -0,0 +1,51 @@
+/*
+ * Copyright 2014 Higher Frequency Trading http://www.higherfrequencytrading.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.openhft.hash;
+
+import java.io.File;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Loads the library classes by itself, isolated from the classes already loaded by the tests,
+ * and records their names.
+ */
+final class RecordingClassLoader extends URLClassLoader {
+    final Set<String> loaded = new HashSet<>();
+
+    /**
+     * @param classes the directories to load the classes from, in order
+     */
+    RecordingClassLoader(final File... classes) throws Exception {
+        super(urls(classes), null);
+    }
+
+    private static URL[] urls(final File[] classes) throws Exception {
+        final URL[] urls = new URL[classes.length];
+        for (int i = 0; i < classes.length; i++) {
+            urls[i] = classes[i].toURI().toURL();
+        }
+        return urls;
+    }
+
+    @Override
+    protected Class<?> findClass(final String name) throws ClassNotFoundException {
+        loaded.add(name);
+        return super.findClass(name);
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2014 Higher Frequency Trading http://www.higherfrequencytrading.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.openhft.hash;
+
+import org.junit.Test;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+public class TransformedHashTest {
+    private static final HashFunction[] FUNCTIONS = {Hash.xx(), Hash.xx3()};
+    private static final int[] LENGTHS = {0, 1, 3, 4, 7, 8, 9, 15, 16, 17, 31, 32, 33, 100, 128,
+            129, 240, 241, 255, 256, 1000, 1025, 4096};
+
+    private static ByteBuffer[] buffers(byte[] data, int off, int len) {
+        ByteBuffer heap = ByteBuffer.wrap(data, off, len);
+        ByteBuffer direct = ByteBuffer.allocateDirect(data.length);
+        direct.put(data);
+        ((Buffer) direct).position(off).limit(off + len);
+        return new ByteBuffer[] {heap, heap.asReadOnlyBuffer(), direct};
+    }
+
+    @Test
+    public void testXor() {
+        Random r = new Random(1);
+        for (HashFunction f : FUNCTIONS) {
+            for (int len : LENGTHS) {
+                for (int off = 0; off < 9; off += 3) {
+                    byte[] data = new byte[off + len + 5];
+                    r.nextBytes(data);
+                    long mask = r.nextLong();
+                    byte[] unmasked = new byte[len];
+                    for (int i = 0; i < len; i++) {
+                        unmasked[i] = (byte) (data[off + i] ^ (mask >>> ((i & 7) << 3)));
+                    }
+                    long expected = f.hashBytes(unmasked);
+                    assertEquals(expected, f.hashBytesXor(data, off, len, mask));
+                    for (ByteBuffer bb : buffers(data, off, len)) {
+                        assertEquals(expected, f.hashBytesXor(bb, mask));
+                        assertEquals(off, bb.position());
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testWebSocketMask() {
+        byte[] key = {0x37, (byte) 0xFA, 0x21, 0x3D};
+        byte[] payload = "Hello, masked WebSocket payload".getBytes();
+        byte[] masked = new byte[payload.length];
+        for (int i = 0; i < payload.length; i++) {
+            masked[i] = (byte) (payload[i] ^ key[i & 3]);
+        }
+        long k = ByteBuffer.wrap(key).order(ByteOrder.LITTLE_ENDIAN).getInt() & 0xFFFFFFFFL;
+        for (HashFunction f : FUNCTIONS) {
+            assertEquals(f.hashBytes(payload), f.hashBytesXor(masked, 0, masked.length, k * 0x100000001L));
+        }
+    }
+
+    @Test
+    public void testMapped() {
+        Random r = new Random(2);
+        byte[] table = new byte[256];
+        for (int i = 0; i < 256; i++) {
+            table[i] = (byte) (255 - i);
+        }
+        for (HashFunction f : FUNCTIONS) {
+            for (int len : LENGTHS) {
+                for (int off = 0; off < 9; off += 4) {
+                    byte[] data = new byte[off + len + 3];
+                    r.nextBytes(data);
+                    byte[] mapped = new byte[len];
+                    for (int i = 0; i < len; i++) {
+                        mapped[i] = table[data[off + i] & 0xFF];
+                    }
+                    long expected = f.hashBytes(mapped);
+                    assertEquals(expected, f.hashBytesMapped(data, off, len, table));
+                    for (ByteBuffer bb : buffers(data, off, len)) {
+                        assertEquals(expected, f.hashBytesMapped(bb, table));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMappedTableLength() {
+        Hash.xx3().hashBytesMapped(new byte[1], 0, 1, new byte[255]);
+    }
+}
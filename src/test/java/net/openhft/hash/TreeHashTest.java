@@ -0,0 +1,151 @@
+/*
+ * Copyright 2014 Higher Frequency Trading http://www.higherfrequencytrading.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.openhft.hash;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+public class TreeHashTest {
+    private static final int LEAF = 1024;
+    private static final int[] LENGTHS = {0, 1, 100, LEAF - 1, LEAF, LEAF + 1, 3 * LEAF, 10 * LEAF + 17};
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final XxHash3Tree tree = Hash.xx3Tree(LEAF);
+    private final byte[] data = new byte[10 * LEAF + 100];
+
+    public TreeHashTest() {
+        new Random(1).nextBytes(data);
+    }
+
+    /**
+     * The tree hash as documented, computed by plain {@code Hash.xx3()} calls.
+     */
+    private static long reference(byte[] input, int off, int len) {
+        int leaves = (len + LEAF - 1) / LEAF;
+        ByteBuffer root = ByteBuffer.allocate(8 * leaves + 8).order(ByteOrder.LITTLE_ENDIAN);
+        for (int i = 0; i < leaves; i++) {
+            int start = i * LEAF;
+            root.putLong(Hash.xx3().hashBytes(input, off + start, Math.min(LEAF, len - start)));
+        }
+        root.putLong(len);
+        return Hash.xx3().hashBytes(root.array());
+    }
+
+    @Test
+    public void testSequential() {
+        for (int len : LENGTHS) {
+            assertEquals("len " + len, reference(data, 3, len), tree.hashBytes(data, 3, len));
+        }
+        assertNotEquals(Hash.xx3().hashBytes(data), tree.hashBytes(data));
+        assertNotEquals(Hash.xx3Tree(2 * LEAF).hashBytes(data), tree.hashBytes(data));
+    }
+
+    @Test
+    public void testStreaming() {
+        Random r = new Random(2);
+        HashState state = tree.newState();
+        for (int len : LENGTHS) {
+            state.reset();
+            int fed = 0;
+            while (fed < len) {
+                int chunk = Math.min(len - fed, r.nextInt(3) == 0 ? 1 : r.nextInt(2 * LEAF + 1));
+                if (chunk == 1) {
+                    state.updateByte(data[fed]);
+                } else {
+                    state.updateBytes(data, fed, chunk);
+                }
+                fed += chunk;
+                assertEquals("len " + fed, reference(data, 0, fed), state.hash());
+            }
+            assertEquals("len " + len, tree.hashBytes(data, 0, len), state.hash());
+        }
+    }
+
+    @Test
+    public void testParallel() {
+        ByteBuffer direct = ByteBuffer.allocateDirect(data.length);
+        direct.put(data).clear();
+        for (int threads : new int[] {1, 2, 3, 8}) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            try {
+                for (int len : LENGTHS) {
+                    long expected = tree.hashBytes(data, 5, len);
+                    assertEquals(expected, tree.hashParallel(data, 5, len, pool));
+                    for (ByteBuffer bb : new ByteBuffer[] {ByteBuffer.wrap(data), direct}) {
+                        bb.limit(5 + len).position(5);
+                        assertEquals(expected, tree.hashParallel(bb, pool));
+                        assertEquals(expected, tree.hashParallel(bb.asReadOnlyBuffer(), pool));
+                        assertEquals(5, bb.position());
+                        bb.clear();
+                    }
+                }
+            } finally {
+                pool.shutdown();
+            }
+        }
+    }
+
+    @Test
+    public void testFileParallel() throws IOException {
+        File file = folder.newFile();
+        Files.write(file.toPath(), data);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            for (int len : LENGTHS) {
+                long expected = tree.hashBytes(data, 7, len);
+                assertEquals(expected, tree.hashFileParallel(channel, 7, len, pool));
+                assertEquals(expected, tree.hashFile(channel, 7, len, 3 * LEAF));
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Pins the results of version 1 of the tree hash format, which must not change.
+     */
+    @Test
+    public void testFormatVersion1() {
+        byte[] input = new byte[3 * LEAF + 100];
+        for (int i = 0; i < input.length; i++) {
+            input[i] = (byte) (i * 31);
+        }
+        assertEquals(0x13b3059259be87d1L, tree.hashBytes(input));
+        assertEquals(0x9b1762b65b38c7ecL, Hash.xx3Tree().hashBytes(input));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSmallLeaf() {
+        Hash.xx3Tree(XxHash3Tree.MIN_LEAF_SIZE - 1);
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2014 Higher Frequency Trading http://www.higherfrequencytrading.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.openhft.hash;
+
+import org.junit.Test;
+
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+public class Utf8HashTest {
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final HashFunction[] FUNCTIONS = {Hash.xx(), Hash.xx3()};
+
+    private static List<String> strings() {
+        List<String> strings = new ArrayList<>();
+        strings.add("");
+        strings.add("a");
+        strings.add("hello");
+        strings.add("Content-Type: text/plain; charset=utf-8");
+        strings.add("héllo wörld");
+        strings.add("привет мир");
+        strings.add("日本語のテキスト");
+        strings.add("emoji 😀 and 👍");
+        strings.add("lone \ud83d high and \ude00 low surrogates\ud83d");
+        strings.add("ÿ\u0080\u007f\u0000߿ࠀ￿");
+        strings.add("HELLO World @[`{ ÀÉÎÕÜ ПРИВЕТ");
+        StringBuilder allChars = new StringBuilder();
+        for (char c = 0; c < 0x200; c++) {
+            allChars.append(c);
+        }
+        strings.add(allChars.toString());
+        strings.add(allChars.substring(0, 0x80));
+        Random r = new Random(1);
+        for (int len : new int[] {7, 16, 100, 240, 1000, 5000}) {
+            StringBuilder ascii = new StringBuilder();
+            StringBuilder latin1 = new StringBuilder();
+            StringBuilder any = new StringBuilder();
+            for (int i = 0; i < len; i++) {
+                ascii.append((char) r.nextInt(0x80));
+                latin1.append((char) (r.nextInt(10) == 0 ? 0x80 + r.nextInt(0x80) : r.nextInt(0x80)));
+                any.append((char) (r.nextInt(3) == 0 ? r.nextInt(0x10000) : r.nextInt(0x80)));
+            }
+            strings.add(ascii.toString());
+            strings.add(latin1.toString());
+            strings.add(any.toString());
+        }
+        return strings;
+    }
+
+    @Test
+    public void testHashUtf8() {
+        for (HashFunction f : FUNCTIONS) {
+            for (String s : strings()) {
+                long expected = f.hashBytes(s.getBytes(UTF_8));
+                assertEquals(s, expected, f.hashUtf8(s));
+                assertEquals(s, expected, f.hashUtf8(new StringBuilder(s)));
+            }
+        }
+    }
+
+    private static String toLowerCaseAscii(String s) {
+        StringBuilder sb = new StringBuilder(s.length());
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            sb.append(c >= 'A' && c <= 'Z' ? (char) (c | 0x20) : c);
+        }
+        return sb.toString();
+    }
+
+    @Test
+    public void testHashUtf8IgnoreAsciiCase() {
+        for (HashFunction f : FUNCTIONS) {
+            for (String s : strings()) {
+                long expected = f.hashBytes(toLowerCaseAscii(s).getBytes(UTF_8));
+                assertEquals(s, expected, f.hashUtf8IgnoreAsciiCase(s));
+                assertEquals(s, expected, f.hashUtf8IgnoreAsciiCase(new StringBuilder(s)));
+            }
+        }
+    }
+
+    @Test
+    public void testStateUpdateUtf8IgnoreAsciiCase() {
+        for (HashFunction f : FUNCTIONS) {
+            HashState state = f.newState();
+            StringBuilder all = new StringBuilder();
+            for (String s : strings()) {
+                state.updateUtf8IgnoreAsciiCase(s);
+                all.append(toLowerCaseAscii(s));
+                assertEquals(f.hashBytes(all.toString().getBytes(UTF_8)), state.hash());
+            }
+        }
+    }
+
+    @Test
+    public void testStateUpdateUtf8() {
+        for (HashFunction f : FUNCTIONS) {
+            HashState state = f.newState();
+            StringBuilder all = new StringBuilder();
+            for (String s : strings()) {
+                state.updateUtf8(s);
+                all.append(s);
+                assertEquals(f.hashBytes(all.toString().getBytes(UTF_8)), state.hash());
+            }
+        }
+    }
+}
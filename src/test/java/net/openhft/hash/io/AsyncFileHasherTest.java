@@ -0,0 +1,130 @@
+/*
+ * Copyright 2014 Higher Frequency Trading http://www.higherfrequencytrading.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.openhft.hash.io;
+
+import net.openhft.hash.Hash;
+import net.openhft.hash.HashFunction;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.CompletionHandler;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class AsyncFileHasherTest {
+    private static final HashFunction[] FUNCTIONS = {Hash.xx(), Hash.xx3()};
+
+    private static File file;
+    private static byte[] data;
+
+    @BeforeClass
+    public static void createFile() throws IOException {
+        data = new byte[200003];
+        new Random(7).nextBytes(data);
+        file = File.createTempFile("async-hash-file", ".bin");
+        FileOutputStream out = new FileOutputStream(file);
+        try {
+            out.write(data);
+        } finally {
+            out.close();
+        }
+    }
+
+    @AfterClass
+    public static void deleteFile() {
+        file.delete();
+    }
+
+    @Test
+    public void testFuture() throws Exception {
+        AsynchronousFileChannel channel = AsynchronousFileChannel.open(file.toPath(), StandardOpenOption.READ);
+        try {
+            for (HashFunction f : FUNCTIONS) {
+                for (int[] buffers : new int[][] {{2, 1000}, {3, 4096}, {4, 1 << 20}}) {
+                    AsyncFileHasher hasher = new AsyncFileHasher(f, buffers[0], buffers[1]);
+                    for (int[] region : new int[][] {{0, data.length}, {0, 0}, {5, 240}, {17, 150000}, {1000, 4096}}) {
+                        int pos = region[0], len = region[1];
+                        long hash = hasher.hash(channel, pos, len).get(10, TimeUnit.SECONDS);
+                        assertEquals("buffers " + buffers[0] + "x" + buffers[1] + " pos " + pos + " len " + len,
+                                f.hashBytes(data, pos, len), hash);
+                    }
+                }
+            }
+        } finally {
+            channel.close();
+        }
+    }
+
+    @Test
+    public void testCompletionHandler() throws Exception {
+        AsynchronousFileChannel channel = AsynchronousFileChannel.open(file.toPath(), StandardOpenOption.READ);
+        try {
+            final BlockingQueue<Object> results = new ArrayBlockingQueue<>(1);
+            CompletionHandler<Long, String> handler = new CompletionHandler<Long, String>() {
+                @Override
+                public void completed(Long result, String attachment) {
+                    assertEquals("attachment", attachment);
+                    results.add(result);
+                }
+
+                @Override
+                public void failed(Throwable exc, String attachment) {
+                    results.add(exc);
+                }
+            };
+            AsyncFileHasher hasher = new AsyncFileHasher(Hash.xx3(), 2, 777);
+            hasher.hash(channel, 3, data.length - 3, "attachment", handler);
+            assertEquals(Hash.xx3().hashBytes(data, 3, data.length - 3), results.poll(10, TimeUnit.SECONDS));
+
+            hasher.hash(channel, 3, data.length, "attachment", handler);
+            assertTrue(results.poll(10, TimeUnit.SECONDS) instanceof EOFException);
+
+            // reusable after a failure
+            hasher.hash(channel, 0, data.length, "attachment", handler);
+            assertEquals(Hash.xx3().hashBytes(data), results.poll(10, TimeUnit.SECONDS));
+        } finally {
+            channel.close();
+        }
+    }
+
+    @Test
+    public void testRegionBeyondFile() throws Exception {
+        AsynchronousFileChannel channel = AsynchronousFileChannel.open(file.toPath(), StandardOpenOption.READ);
+        try {
+            new AsyncFileHasher(Hash.xx()).hash(channel, 1, data.length).get(10, TimeUnit.SECONDS);
+            fail();
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof EOFException);
+        } finally {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2014 Higher Frequency Trading http://www.higherfrequencytrading.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.openhft.hash.io;
+
+import net.openhft.hash.Hash;
+import net.openhft.hash.HashFunction;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class HashingChannelsTest {
+    private static final HashFunction[] FUNCTIONS = {Hash.xx(), Hash.xx3()};
+
+    private static byte[] data(int len) {
+        byte[] data = new byte[len];
+        new Random(len).nextBytes(data);
+        return data;
+    }
+
+    @Test
+    public void testReadableChannel() throws IOException {
+        for (HashFunction f : FUNCTIONS) {
+            byte[] data = data(100000);
+            HashingReadableByteChannel ch = new HashingReadableByteChannel(
+                    Channels.newChannel(new ByteArrayInputStream(data)), f);
+            ByteBuffer buffer = ByteBuffer.allocateDirect(1000);
+            ((Buffer)buffer).position(3);
+            ByteArrayOutputStream read = new ByteArrayOutputStream();
+            int n;
+            while ((n = ch.read(buffer)) >= 0) {
+                assertEquals(3 + n, buffer.position());
+                ((Buffer)buffer).flip();
+                ((Buffer)buffer).position(3);
+                byte[] chunk = new byte[n];
+                buffer.get(chunk);
+                read.write(chunk);
+                ((Buffer)buffer).clear();
+                ((Buffer)buffer).position(3);
+            }
+            assertArrayEquals(data, read.toByteArray());
+            assertEquals(f.hashBytes(data), ch.hash());
+        }
+    }
+
+    @Test
+    public void testWritableFileChannel() throws IOException {
+        File file = File.createTempFile("hashing-channel", ".bin");
+        file.deleteOnExit();
+        for (HashFunction f : FUNCTIONS) {
+            byte[] data = data(50000);
+            RandomAccessFile raf = new RandomAccessFile(file, "rw");
+            try {
+                raf.setLength(0);
+                HashingWritableByteChannel ch = new HashingWritableByteChannel(raf.getChannel(), f);
+                ByteBuffer buffer = ByteBuffer.allocateDirect(4096);
+                for (int off = 0; off < data.length; ) {
+                    int n = Math.min(buffer.capacity(), data.length - off);
+                    ((Buffer)buffer).clear();
+                    buffer.put(data, off, n);
+                    ((Buffer)buffer).flip();
+                    while (buffer.hasRemaining()) {
+                        off += ch.write(buffer);
+                    }
+                }
+                assertEquals(f.hashBytes(data), ch.hash());
+
+                FileChannel fc = raf.getChannel();
+                fc.position(0);
+                HashingReadableByteChannel in = new HashingReadableByteChannel(fc, f);
+                ByteBuffer readBuffer = ByteBuffer.allocateDirect(3000);
+                while (in.read(readBuffer) >= 0) {
+                    ((Buffer)readBuffer).clear();
+                }
+                assertEquals(f.hashBytes(data), in.hash());
+            } finally {
+                raf.close();
+            }
+        }
+    }
+}
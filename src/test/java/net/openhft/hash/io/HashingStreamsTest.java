@@ -0,0 +1,97 @@
+/*
+ * Copyright 2014 Higher Frequency Trading http://www.higherfrequencytrading.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.openhft.hash.io;
+
+import net.openhft.hash.Hash;
+import net.openhft.hash.HashFunction;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class HashingStreamsTest {
+    private static final HashFunction[] FUNCTIONS = {Hash.xx(), Hash.xx3()};
+
+    private static byte[] data(int len) {
+        byte[] data = new byte[len];
+        new Random(len).nextBytes(data);
+        return data;
+    }
+
+    @Test
+    public void testInputStream() throws IOException {
+        for (HashFunction f : FUNCTIONS) {
+            for (int len : new int[] {0, 1, 100, 240, 241, 5000, 100000}) {
+                byte[] data = data(len);
+                HashingInputStream in = new HashingInputStream(new ByteArrayInputStream(data), f);
+                byte[] read = new byte[len];
+                int pos = 0;
+                // mix single-byte and bulk reads
+                while (pos < len) {
+                    if ((pos & 1) == 0) {
+                        read[pos++] = (byte) in.read();
+                    } else {
+                        pos += in.read(read, pos, Math.min(777, len - pos));
+                    }
+                }
+                assertEquals(-1, in.read());
+                assertArrayEquals(data, read);
+                assertEquals(f.hashBytes(data), in.hash());
+            }
+        }
+    }
+
+    @Test
+    public void testInputStreamSkip() throws IOException {
+        for (HashFunction f : FUNCTIONS) {
+            byte[] data = data(3000);
+            HashingInputStream in = new HashingInputStream(new ByteArrayInputStream(data), f);
+            assertEquals(1000, in.skip(1000));
+            assertEquals(2000, in.skip(5000));
+            assertEquals(f.hashBytes(data), in.hash());
+        }
+    }
+
+    @Test
+    public void testOutputStream() throws IOException {
+        for (HashFunction f : FUNCTIONS) {
+            for (int len : new int[] {0, 1, 100, 240, 241, 5000, 100000}) {
+                byte[] data = data(len);
+                ByteArrayOutputStream sink = new ByteArrayOutputStream();
+                HashingOutputStream out = new HashingOutputStream(sink, f);
+                int pos = 0;
+                while (pos < len) {
+                    if ((pos & 1) == 0) {
+                        out.write(data[pos++]);
+                    } else {
+                        int n = Math.min(777, len - pos);
+                        out.write(data, pos, n);
+                        pos += n;
+                    }
+                }
+                out.close();
+                assertArrayEquals(data, sink.toByteArray());
+                assertEquals(f.hashBytes(data), out.hash());
+            }
+        }
+    }
+}
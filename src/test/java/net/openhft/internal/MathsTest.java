@@ -2,7 +2,15 @@ package net.openhft.internal;
 
 import org.junit.Test;
 
+import java.io.File;
+import java.lang.reflect.Method;
+import java.math.BigInteger;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.Random;
+
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assume.assumeTrue;
 
 public class MathsTest {
     @Test
@@ -23,4 +31,47 @@ public class MathsTest {
             assertEquals(0x300000002L ^ (-0x300000003L), Maths.unsignedLongMulXorFold(x, y));
         }
     }
+
+    @Test
+    public void testJava9Layer() throws Exception {
+        testLayer(9);
+    }
+
+    @Test
+    public void testJava18Layer() throws Exception {
+        testLayer(18);
+    }
+
+    /**
+     * Loads {@code Maths} of the given layer of the multi-release JAR right from the compiled
+     * classes, as the base version shadows it on the class path.
+     */
+    private static void testLayer(int version) throws Exception {
+        String spec = System.getProperty("java.specification.version");
+        int runtime = Integer.parseInt(spec.startsWith("1.") ? spec.substring(2) : spec);
+        assumeTrue(runtime >= version);
+        File classes = new File(Maths.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+        File layer = new File(classes, "META-INF/versions/" + version);
+        assumeTrue(new File(layer, "net/openhft/internal/Maths.class").isFile());
+
+        ClassLoader loader = new URLClassLoader(new URL[] {layer.toURI().toURL()}, null);
+        Method fold = loader.loadClass(Maths.class.getName())
+                .getMethod("unsignedLongMulXorFold", long.class, long.class);
+        Random r = new Random(version);
+        long[] edges = {0, 1, -1, Long.MIN_VALUE, Long.MAX_VALUE, 0xFFFFFFFFL, 0x100000000L};
+        for (int i = 0; i < 10_000; i++) {
+            long x = i < edges.length * edges.length ? edges[i % edges.length] : r.nextLong();
+            long y = i < edges.length * edges.length ? edges[i / edges.length] : r.nextLong();
+            assertEquals(x + " * " + y, fold(x, y), fold.invoke(null, x, y));
+        }
+    }
+
+    private static long fold(long x, long y) {
+        BigInteger product = unsigned(x).multiply(unsigned(y));
+        return product.longValue() ^ product.shiftRight(64).longValue();
+    }
+
+    private static BigInteger unsigned(long v) {
+        return BigInteger.valueOf(v >>> 1).shiftLeft(1).add(BigInteger.valueOf(v & 1));
+    }
 }
@@ -0,0 +1,56 @@
+/*
+ * Copyright 2014 Higher Frequency Trading http://www.higherfrequencytrading.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.openhft.internal;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.*;
+
+public class UnsafesTest {
+
+    @Test
+    public void testParseAccess() {
+        assertNull(Unsafes.parseAccess(null));
+        assertEquals("unsafe", Unsafes.parseAccess("unsafe"));
+        assertEquals("unsafe", Unsafes.parseAccess("Unsafe"));
+        assertEquals("varhandle", Unsafes.parseAccess("VarHandle"));
+        assertEquals("plain", Unsafes.parseAccess(" PLAIN "));
+    }
+
+    @Test
+    public void testParseAccessTypo() {
+        assertNull(Unsafes.parseAccess("unsafe-access"));
+    }
+
+    @Test
+    public void testParseAccessEmpty() {
+        assertNull(Unsafes.parseAccess(""));
+    }
+
+    @Test
+    public void testBufferAddress() {
+        if (Unsafes.UNSAFE == null) {
+            assertEquals(-1, Unsafes.BUFFER_ADDRESS);
+            return;
+        }
+        ByteBuffer buffer = ByteBuffer.allocateDirect(8).put(3, (byte) 7);
+        long address = Unsafes.UNSAFE.getLong(buffer, Unsafes.BUFFER_ADDRESS);
+        assertEquals(7, Unsafes.UNSAFE.getByte(null, address + 3));
+    }
+}